@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Startup benchmark: time from process start until /actuator/health answers UP,
+# and resident set size at that point, for the JVM, JVM+AppCDS and native builds.
+#
+#   mvn -Pcds package            # target/*.jar and target/cds/
+#   mvn -Pnative package         # target/workflow-service (needs GraalVM)
+#   scripts/startup-benchmark.sh [runs] [modes...]
+#
+# Modes whose artifacts are missing are skipped. Prints one CSV row per run
+# and a median summary per mode. Warm-up is off so the numbers cover startup
+# alone; run with APP_ARGS= to measure time to readiness including warm-up.
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+MODES=${*:-jvm cds native}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR="$ROOT/target/workflow-service-0.0.1-SNAPSHOT.jar"
+CDS_DIR="$ROOT/target/cds"
+NATIVE="$ROOT/target/workflow-service"
+HEALTH="http://localhost:$PORT/actuator/health"
+APP_ARGS=${APP_ARGS---workflow.warmup.enabled=false}
+
+command_for() {
+  case "$1" in
+    jvm)    [[ -f "$JAR" ]] && echo "java -jar $JAR" ;;
+    cds)    [[ -f "$CDS_DIR/application.jsa" ]] &&
+              echo "java -XX:SharedArchiveFile=$CDS_DIR/application.jsa -jar $CDS_DIR/$(basename "$JAR")" ;;
+    native) [[ -x "$NATIVE" ]] && echo "$NATIVE" ;;
+  esac
+}
+
+now_ms() { date +%s%3N; }
+
+measure() {
+  local cmd=$1 start pid ms rss
+  start=$(now_ms)
+  $cmd --server.port="$PORT" $APP_ARGS >/dev/null 2>&1 &
+  pid=$!
+  until curl -sf "$HEALTH" 2>/dev/null | grep -q '"UP"'; do
+    kill -0 "$pid" 2>/dev/null || { echo "process exited before becoming healthy" >&2; return 1; }
+    sleep 0.02
+  done
+  ms=$(( $(now_ms) - start ))
+  rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$ms,$((rss / 1024))"
+}
+
+median() { sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : (a[NR/2] + a[NR/2+1]) / 2}'; }
+
+echo "mode,run,startup_ms,rss_mb"
+summary=""
+for mode in $MODES; do
+  cmd=$(command_for "$mode") || true
+  if [[ -z "${cmd:-}" ]]; then
+    echo "# $mode: artifact not built, skipped" >&2
+    continue
+  fi
+  results=()
+  for run in $(seq 1 "$RUNS"); do
+    r=$(measure "$cmd")
+    results+=("$r")
+    echo "$mode,$run,$r"
+  done
+  ms=$(printf '%s\n' "${results[@]}" | cut -d, -f1 | median)
+  rss=$(printf '%s\n' "${results[@]}" | cut -d, -f2 | median)
+  summary+="# $mode: median startup ${ms} ms, median RSS ${rss} MB"$'\n'
+done
+printf '%s' "$summary"
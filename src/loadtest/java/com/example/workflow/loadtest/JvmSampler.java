@@ -0,0 +1,64 @@
+package com.example.workflow.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GC pauses and allocated bytes between {@link #start} and {@link #stop}.
+ * Load generator and service share the JVM, so both are counted.
+ */
+final class JvmSampler {
+
+    record Sample(long gcCount, double gcPauseTotalMs, double gcPauseMaxMs, double allocationMbPerSec) { }
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder pauseMicros = new LongAdder();
+    private final AtomicLong maxPauseMicros = new AtomicLong();
+    private volatile boolean recording;
+    private long allocatedAtStart;
+    private long startNanos;
+
+    JvmSampler() {
+        NotificationListener listener = (notification, handback) -> {
+            if (recording && GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // ZGC/Shenandoah report whole concurrent cycles separately from their pauses
+                if (!info.getGcName().endsWith("Cycles")) {
+                    long micros = info.getGcInfo().getDuration() * 1000;
+                    count.increment();
+                    pauseMicros.add(micros);
+                    maxPauseMicros.accumulateAndGet(micros, Math::max);
+                }
+            }
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+        }
+    }
+
+    void start() {
+        count.reset();
+        pauseMicros.reset();
+        maxPauseMicros.set(0);
+        allocatedAtStart = threads.getTotalThreadAllocatedBytes();
+        startNanos = System.nanoTime();
+        recording = true;
+    }
+
+    Sample stop() {
+        recording = false;
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double allocatedMb = (threads.getTotalThreadAllocatedBytes() - allocatedAtStart) / (1024.0 * 1024.0);
+        return new Sample(count.sum(), pauseMicros.sum() / 1000.0, maxPauseMicros.get() / 1000.0,
+                allocatedMb / seconds);
+    }
+}
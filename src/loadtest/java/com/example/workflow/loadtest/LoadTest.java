@@ -0,0 +1,169 @@
+package com.example.workflow.loadtest;
+
+import com.example.workflow.WorkflowServiceApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Macro load test of {@code /workflows/execute}: starts the service in
+ * process with {@link StubServer} as the HTTP node's downstream and drives it
+ * with {@link OpenModelLoad} for every combination of payload size,
+ * downstream latency and controller mode.
+ *
+ * <pre>
+ * mvn -Ploadtest compile exec:java -Dloadtest.args="run --rate=200 --duration=30s --out=target/loadtest/run.json"
+ * mvn -Ploadtest compile exec:java -Dloadtest.args="compare --baseline=a.json --current=b.json --slo-p99-ms=250"
+ * </pre>
+ *
+ * {@code run} options: {@code --rate}, {@code --duration}, {@code --warmup},
+ * {@code --payloads} (bytes), {@code --latencies} (ms), {@code --modes}
+ * ({@code sync,async}), {@code --stub-capacity} (concurrent downstream requests, 0 = unlimited),
+ * {@code --engine} ({@code servlet} or {@code reactive}), {@code --out}. See {@link ReportComparison} for {@code compare}.
+ */
+public final class LoadTest {
+
+    private LoadTest() { }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = options(args);
+        int status = switch (args.length == 0 ? "run" : args[0]) {
+            case "run" -> run(opts);
+            case "compare" -> ReportComparison.compare(opts);
+            default -> throw new IllegalArgumentException("Unknown command " + args[0] + ", expected run or compare");
+        };
+        System.exit(status);
+    }
+
+    private static int run(Map<String, String> opts) throws Exception {
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "200"));
+        Duration duration = Duration.parse("PT" + opts.getOrDefault("duration", "30s"));
+        Duration warmup = Duration.parse("PT" + opts.getOrDefault("warmup", "10s"));
+        int[] payloads = ints(opts.getOrDefault("payloads", "128,16384"));
+        int[] latencies = ints(opts.getOrDefault("latencies", "0,50"));
+        String[] modes = opts.getOrDefault("modes", "sync,async").split(",");
+        String engine = opts.getOrDefault("engine", "servlet");
+        int stubCapacity = Integer.parseInt(opts.getOrDefault("stub-capacity", "0"));
+        Path out = Path.of(opts.getOrDefault("out", "target/loadtest/report.json"));
+
+        List<Report.Scenario> scenarios = new ArrayList<>();
+        try (StubServer stub = new StubServer();
+             ConfigurableApplicationContext app = start(stub.url(), engine)) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            stub.capacity(stubCapacity);
+            MeterRegistry meters = app.getBean(MeterRegistry.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            OpenModelLoad load = new OpenModelLoad(client, Duration.ofSeconds(30));
+            JvmSampler jvm = new JvmSampler();
+
+            for (String mode : modes) {
+                URI target = URI.create("http://127.0.0.1:" + port
+                        + ("async".equals(mode) ? "/workflows/execute-async" : "/workflows/execute"));
+                for (int payload : payloads) {
+                    byte[] body = body(payload);
+                    for (int latency : latencies) {
+                        stub.latencyMillis(latency);
+                        String name = mode + "-" + payload + "B-" + latency + "ms";
+                        System.out.printf("%s: warmup %s, measure %s at %.0f req/s%n", name, warmup, duration, rate);
+                        load.run(target, body, rate, warmup);
+                        jvm.start();
+                        OpenModelLoad.Outcome outcome = load.run(target, body, rate, duration);
+                        JvmSampler.Sample sample = jvm.stop();
+                        scenarios.add(scenario(name, mode, payload, latency, rate, outcome, sample, limits(meters)));
+                    }
+                }
+            }
+        }
+
+        Report report = new Report(Instant.now().toString(), Runtime.version().toString(),
+                Runtime.getRuntime().availableProcessors(), scenarios);
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("Report written to " + out);
+        return 0;
+    }
+
+    private static ConfigurableApplicationContext start(String downstreamUrl, String engine) {
+        return SpringApplication.run(WorkflowServiceApplication.class,
+                "--server.port=0",
+                "--spring.main.web-application-type=" + engine,
+                "--workflow.validate-url=" + downstreamUrl,
+                // the harness measures the engine, not the quotas in front of it
+                "--workflow.quota.workflows.default.permits-per-second=1000000",
+                "--workflow.quota.workflows.default.burst=1000000",
+                "--workflow.quota.hosts[127.0.0.1].permits-per-second=1000000",
+                "--workflow.quota.hosts[127.0.0.1].burst=1000000",
+                "--workflow.history.dir=target/loadtest/history",
+                "--logging.level.root=WARN");
+    }
+
+    private static Report.Scenario scenario(String name, String mode, int payload, int latency, double rate,
+                                            OpenModelLoad.Outcome o, JvmSampler.Sample jvm,
+                                            Map<String, Double> limits) {
+        Histogram h = o.latency();
+        double seconds = o.elapsedNanos() / 1e9;
+        return new Report.Scenario(name, mode, payload, latency, rate, seconds, o.sent(), o.ok(), o.failed(),
+                o.ok() / seconds,
+                new Report.Latency(ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                        ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)),
+                        ms(h.getMaxValue()), h.getMean() / 1e6),
+                jvm, limits);
+    }
+
+    /** Adaptive concurrency limits at the end of a scenario, by scope and key. */
+    private static Map<String, Double> limits(MeterRegistry meters) {
+        Map<String, Double> limits = new TreeMap<>();
+        for (Gauge gauge : meters.find("workflow.concurrency.limit").gauges()) {
+            limits.put(gauge.getId().getTag("scope") + ":" + gauge.getId().getTag("key"), gauge.value());
+        }
+        return limits;
+    }
+
+    private static byte[] body(int size) {
+        String prefix = "{\"query\":{\"email\":\"hmchiud@tsmc.com\",\"padding\":\"";
+        String suffix = "\"}}";
+        String padding = "x".repeat(Math.max(0, size - prefix.length() - suffix.length()));
+        return (prefix + padding + suffix).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static int[] ints(String csv) {
+        return Arrays.stream(csv.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    static Map<String, String> options(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                opts.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.workflow.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Constant-arrival-rate (open model) load: request {@code i} is due at
+ * {@code start + i / rate} regardless of how earlier requests fare, and its
+ * latency is measured from that due time, so a stalled server shows up as
+ * latency instead of silently lowering the offered load.
+ */
+final class OpenModelLoad {
+
+    record Outcome(Histogram latency, long sent, long ok, long failed, long elapsedNanos) { }
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client;
+    private final Duration timeout;
+
+    OpenModelLoad(HttpClient client, Duration timeout) {
+        this.client = client;
+        this.timeout = timeout;
+    }
+
+    Outcome run(URI target, byte[] body, double ratePerSecond, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+        Phaser inFlight = new Phaser(1);
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long total = (long) (duration.toNanos() / (double) intervalNanos);
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            inFlight.register();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((res, ex) -> {
+                recorder.recordValue(Math.min(System.nanoTime() - due, MAX_LATENCY_NANOS));
+                if (ex == null && res.statusCode() == 200) {
+                    ok.increment();
+                } else {
+                    failed.increment();
+                }
+                inFlight.arriveAndDeregister();
+            });
+        }
+        inFlight.arriveAndAwaitAdvance();
+        return new Outcome(recorder.getIntervalHistogram(), total, ok.sum(), failed.sum(), System.nanoTime() - start);
+    }
+}
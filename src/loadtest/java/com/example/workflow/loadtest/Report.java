@@ -0,0 +1,24 @@
+package com.example.workflow.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/** Machine-readable load test output, one entry per scenario. */
+record Report(String startedAt, String javaVersion, int availableProcessors, List<Scenario> scenarios) {
+
+    record Scenario(String name,
+                    String mode,
+                    int payloadBytes,
+                    long downstreamLatencyMs,
+                    double targetRate,
+                    double durationSeconds,
+                    long sent,
+                    long ok,
+                    long failed,
+                    double throughput,
+                    Latency latencyMs,
+                    JvmSampler.Sample jvm,
+                    Map<String, Double> concurrencyLimits) { }
+
+    record Latency(double p50, double p90, double p99, double p999, double max, double mean) { }
+}
@@ -0,0 +1,93 @@
+package com.example.workflow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compares two reports scenario by scenario. A scenario fails when its p99
+ * is above {@code --slo-p99-ms}, when p99 or throughput regressed by more than
+ * {@code --max-regression-pct} against the baseline, or when requests failed.
+ * Prints the verdicts as JSON and returns a non-zero exit status on any failure.
+ */
+final class ReportComparison {
+
+    private ReportComparison() { }
+
+    /** Baseline values and changes are null for scenarios the baseline does not have. */
+    record Verdict(String scenario, Double baselineP99Ms, double currentP99Ms, Double p99ChangePct,
+                   Double baselineThroughput, double currentThroughput, Double throughputChangePct,
+                   long failedRequests, List<String> violations) { }
+
+    static int compare(Map<String, String> opts) throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        Report baseline = json.readValue(new File(require(opts, "baseline")), Report.class);
+        Report current = json.readValue(new File(require(opts, "current")), Report.class);
+        double sloP99 = Double.parseDouble(opts.getOrDefault("slo-p99-ms", String.valueOf(Double.MAX_VALUE)));
+        double maxRegression = Double.parseDouble(opts.getOrDefault("max-regression-pct", "10"));
+
+        Map<String, Report.Scenario> before = index(baseline.scenarios(), Report.Scenario::name);
+        List<Verdict> verdicts = new ArrayList<>();
+        boolean pass = true;
+        for (Report.Scenario now : current.scenarios()) {
+            Report.Scenario was = before.get(now.name());
+            List<String> violations = new ArrayList<>();
+            double p99 = now.latencyMs().p99();
+            if (p99 > sloP99) {
+                violations.add("p99 " + p99 + " ms above SLO " + sloP99 + " ms");
+            }
+            if (now.failed() > 0) {
+                violations.add(now.failed() + " failed requests");
+            }
+            Double p99Change = null;
+            Double throughputChange = null;
+            if (was != null) {
+                p99Change = change(was.latencyMs().p99(), p99);
+                throughputChange = change(was.throughput(), now.throughput());
+                if (p99Change > maxRegression) {
+                    violations.add("p99 regressed " + Math.round(p99Change) + "%");
+                }
+                if (-throughputChange > maxRegression) {
+                    violations.add("throughput regressed " + Math.round(-throughputChange) + "%");
+                }
+            }
+            pass &= violations.isEmpty();
+            verdicts.add(new Verdict(now.name(),
+                    was == null ? null : was.latencyMs().p99(), p99, p99Change,
+                    was == null ? null : was.throughput(), now.throughput(), throughputChange,
+                    now.failed(), violations));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pass", pass);
+        result.put("sloP99Ms", sloP99);
+        result.put("maxRegressionPct", maxRegression);
+        result.put("scenarios", verdicts);
+        System.out.println(json.enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(result));
+        return pass ? 0 : 1;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static <T> Map<String, T> index(List<T> items, Function<T, String> key) {
+        Map<String, T> map = new LinkedHashMap<>();
+        items.forEach(i -> map.put(key.apply(i), i));
+        return map;
+    }
+
+    private static String require(Map<String, String> opts, String name) {
+        String value = opts.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.workflow.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.Executors;
+
+/**
+ * Stands in for the downstream that {@code HttpRequestNode} calls, answering
+ * after an adjustable injected latency. With a capacity set it serves that
+ * many requests at a time and queues the rest, so its latency climbs with
+ * load like a saturated service.
+ */
+final class StubServer implements AutoCloseable {
+
+    static final String PATH = "/webhook-test/validate";
+    private static final byte[] BODY = "{\"valid\":true}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private volatile long latencyMillis;
+    private volatile Semaphore capacity;
+
+    StubServer() throws IOException {
+        // small header and body writes otherwise stall on Nagle + delayed ACK (~40 ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(PATH, exchange -> {
+            Semaphore slots = capacity;
+            try (exchange) {
+                if (slots != null) {
+                    slots.acquire();
+                }
+                try {
+                    long latency = latencyMillis;
+                    if (latency > 0) {
+                        Thread.sleep(latency);
+                    }
+                } finally {
+                    if (slots != null) {
+                        slots.release();
+                    }
+                }
+                exchange.getRequestBody().readAllBytes();
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, BODY.length);
+                exchange.getResponseBody().write(BODY);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    void latencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /** Concurrent requests served; 0 for unlimited. */
+    void capacity(int capacity) {
+        this.capacity = capacity > 0 ? new Semaphore(capacity, true) : null;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -1,9 +1,31 @@
 package com.example.workflow;
 
+import com.example.workflow.memory.ExecutionMemory;
+
 import java.util.Map;
 
 /**
- * Context passed to components.
+ * Context passed to components. Large values go into the globals through
+ * {@code memory}, which may keep them off the heap.
  */
 public record ComponentContext(Map<String, Object> inputs,
-                               Map<String, Object> globals) { }
+                               Map<String, Object> globals,
+                               ExecutionMemory memory) {
+
+    public ComponentContext(Map<String, Object> inputs, Map<String, Object> globals) {
+        this(inputs, globals, ExecutionMemory.unmanaged(globals));
+    }
+
+    /**
+     * A count input given as any {@link Number} (JSON may bind it to Long or
+     * Double), capped at {@code Integer.MAX_VALUE}; 0 if it is not a number or
+     * below one.
+     */
+    public int positiveInt(String name, int defaultValue) {
+        Object value = inputs.getOrDefault(name, defaultValue);
+        if (!(value instanceof Number number) || number.doubleValue() < 1) {
+            return 0;
+        }
+        return (int) Math.min(number.longValue(), Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.workflow;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Workflow components by bean name (e.g. {@code httpRequestNode}). Components
+ * are lazy beans, created on the first {@link #get} for their name; types no
+ * active workflow refers to are never instantiated.
+ */
+@Component
+public class ComponentRegistry {
+
+    private final ListableBeanFactory beans;
+    private final Map<String, WorkflowComponent> resolved = new ConcurrentHashMap<>();
+
+    public ComponentRegistry(ListableBeanFactory beans) {
+        this.beans = beans;
+    }
+
+    public WorkflowComponent get(String name) {
+        return resolved.computeIfAbsent(name, n -> beans.getBean(n, WorkflowComponent.class));
+    }
+
+    /** Every registered component name, without instantiating any. */
+    public Set<String> names() {
+        return Set.of(beans.getBeanNamesForType(WorkflowComponent.class, true, false));
+    }
+
+    /** Names of the components created so far. */
+    public Set<String> instantiated() {
+        return Set.copyOf(resolved.keySet());
+    }
+}
@@ -1,10 +1,35 @@
 package com.example.workflow;
 
-public record ComponentResult(Status status, Object data, String error) {
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.example.workflow.memory.LargeValue;
+
+import java.util.Collection;
+import java.util.Map;
+
+public record ComponentResult(Status status, Object data, WorkflowFailure failure) {
     public static ComponentResult ok(Object data) {
         return new ComponentResult(Status.SUCCESS, data, null);
     }
     public static ComponentResult error(String msg) {
-        return new ComponentResult(Status.ERROR, null, msg);
+        return failed(WorkflowFailure.of(ErrorCode.NODE_FAILED, msg));
+    }
+    public static ComponentResult failed(WorkflowFailure failure) {
+        return new ComponentResult(Status.ERROR, null, failure);
+    }
+
+    /** Failure detail, null on success. */
+    public String error() {
+        return failure == null ? null : failure.getMessage();
+    }
+
+    /** Rough size of {@code data}: chars, bytes or element count, -1 if unknown. */
+    public int payloadSize() {
+        if (data instanceof CharSequence s) return s.length();
+        if (data instanceof byte[] b) return b.length;
+        if (data instanceof Collection<?> c) return c.size();
+        if (data instanceof Map<?, ?> m) return m.size();
+        if (data instanceof LargeValue v) return (int) Math.min(v.size(), Integer.MAX_VALUE);
+        return data == null ? 0 : -1;
     }
 }
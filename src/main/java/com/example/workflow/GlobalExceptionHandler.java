@@ -1,23 +1,63 @@
 package com.example.workflow;
 
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.time.Instant;
-import java.util.Map;
-
+/**
+ * Renders every failure as an RFC 7807 problem. Expected failures reuse their
+ * cached body; unexpected exceptions are logged and answered with the
+ * {@code INTERNAL} title and the request path as the instance.
+ */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final WorkflowFailure UNREADABLE_BODY =
+            WorkflowFailure.of(ErrorCode.VALIDATION_FAILED, "Request body is not valid JSON");
+
+    @ExceptionHandler(WorkflowFailure.class)
+    public ResponseEntity<byte[]> handle(WorkflowFailure failure) {
+        return problem(failure, null);
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<byte[]> handle(HttpMessageNotReadableException ex) {
+        return problem(UNREADABLE_BODY, null);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<byte[]> handle(MethodArgumentTypeMismatchException ex) {
+        return problem(WorkflowFailure.of(ErrorCode.VALIDATION_FAILED, "Invalid value for " + ex.getName()), null);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handle(Exception ex, HttpServletRequest req) {
-        return new ResponseEntity<>(
-                Map.of("timestamp", Instant.now().toString(),
-                       "path", req.getRequestURI(),
-                       "message", ex.getMessage()),
-                HttpStatus.INTERNAL_SERVER_ERROR);
+        if (ex instanceof ErrorResponse framework) {
+            // framework errors that carry their own status, e.g. 404s and invalid actuator requests
+            return ResponseEntity.status(framework.getStatusCode())
+                    .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                    .body(framework.getBody());
+        }
+        // the message may carry internals, so the caller only gets the code's title
+        log.error("Unhandled failure on {}", req.getRequestURI(), ex);
+        return problem(ErrorCode.INTERNAL.failure(), req.getRequestURI());
+    }
+
+    private static ResponseEntity<byte[]> problem(WorkflowFailure failure, String instance) {
+        return ResponseEntity.status(failure.code().status())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(failure.problemJson(instance));
     }
 }
@@ -1,59 +1,178 @@
 package com.example.workflow;
 
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.example.workflow.history.ExecutionHistory;
+import com.example.workflow.history.ExecutionRecord;
+import com.example.workflow.history.ExecutionRecord.NodeRecord;
+import com.example.workflow.memory.ExecutionMemory;
+import com.example.workflow.memory.MemoryGovernor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
-public class HardCodedExecutor {
-
-    private final WebhookNode webhook;
-    private final IfNode ifNode;
-    private final SetNode nextStep;
-    private final HttpRequestNode httpRequest;
-    private final RespondToWebhookNode respond200;
-    private final RespondToWebhookNode respond400;
-
-    public HardCodedExecutor(WebhookNode webhook,
-                             IfNode ifNode,
-                             SetNode nextStep,
-                             HttpRequestNode httpRequest,
-                             RespondToWebhookNode respond200,
-                             RespondToWebhookNode respond400) {
-        this.webhook = webhook;
-        this.ifNode = ifNode;
-        this.nextStep = nextStep;
-        this.httpRequest = httpRequest;
-        this.respond200 = respond200;
-        this.respond400 = respond400;
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HardCodedExecutor implements WarmableWorkflow {
+
+    public static final String WORKFLOW_ID = "validate-email";
+
+    private static final WorkflowFailure MISSING_QUERY =
+            WorkflowFailure.of(ErrorCode.VALIDATION_FAILED, "query object is required");
+
+    /** One body per IF branch. */
+    public static final List<Map<String, Object>> SAMPLE_PAYLOADS = List.of(
+            Map.of("query", Map.of("email", "hmchiud@tsmc.com")),
+            Map.of("query", Map.of("email", "warmup@example.com")));
+
+    private final WorkflowComponent webhook;
+    private final WorkflowComponent ifNode;
+    private final WorkflowComponent nextStep;
+    private final WorkflowComponent httpRequest;
+    private final WorkflowComponent respond;
+    private final ObservationRegistry observations;
+    private final ExecutionHistory history;
+    private final MemoryGovernor governor;
+    private final String validateUrl;
+
+    public HardCodedExecutor(ComponentRegistry components,
+                             ObservationRegistry observations,
+                             ExecutionHistory history,
+                             MemoryGovernor governor,
+                             @Value("${workflow.validate-url}") String validateUrl) {
+        this.webhook = components.get("webhookNode");
+        this.ifNode = components.get("ifNode");
+        this.nextStep = components.get("setNode");
+        this.httpRequest = components.get("httpRequestNode");
+        this.respond = components.get("respondToWebhookNode");
+        this.observations = observations;
+        this.history = history;
+        this.governor = governor;
+        this.validateUrl = validateUrl;
     }
 
     public Map<String, Object> execute(Map<String, Object> requestBody) {
-        Map<String, Object> globals = new HashMap<>();
+        return execute(requestBody, validateUrl, false);
+    }
+
+    @Override
+    public String workflowId() {
+        return WORKFLOW_ID;
+    }
+
+    @Override
+    public List<Map<String, Object>> samplePayloads() {
+        return SAMPLE_PAYLOADS;
+    }
+
+    @Override
+    public void runSynthetic(Map<String, Object> body, String downstreamUrl) {
+        execute(body, downstreamUrl, true);
+    }
 
+    private Map<String, Object> execute(Map<String, Object> requestBody, String url, boolean synthetic) {
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        List<NodeRecord> nodes = new ArrayList<>();
+        String error = null;
+        try {
+            return Observation.createNotStarted("workflow.run", observations(synthetic))
+                    .lowCardinalityKeyValue("workflow.id", WORKFLOW_ID)
+                    .observe(() -> run(requestBody, url, synthetic, nodes));
+        } catch (RuntimeException ex) {
+            error = String.valueOf(ex.getMessage());
+            throw ex;
+        } finally {
+            if (!synthetic) {
+                // only hands the record to the history writer thread
+                for (int i = 0; error == null && i < nodes.size(); i++) {
+                    error = nodes.get(i).error();
+                }
+                history.record(new ExecutionRecord(0, WORKFLOW_ID, error == null ? Status.SUCCESS : Status.ERROR,
+                        startedAt, System.nanoTime() - start, requestBody, nodes, error));
+            }
+        }
+    }
+
+    private Map<String, Object> run(Map<String, Object> requestBody, String url, boolean synthetic,
+                                    List<NodeRecord> nodes) {
+        try (ExecutionMemory memory = governor.open(new HashMap<>())) {
+            // nothing downstream reads the HTTP body: free it as soon as its node has run
+            memory.releaseAfter("http_response");
+            return run(requestBody, url, synthetic, nodes, memory);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> run(Map<String, Object> requestBody, String url, boolean synthetic,
+                                    List<NodeRecord> nodes, ExecutionMemory memory) {
+        ObservationRegistry observations = observations(synthetic);
         // 1. Webhook
-        webhook.execute(new ComponentContext(Map.of("payload", requestBody), globals));
+        step(observations, "Webhook", webhook, nodes, Map.of("payload", requestBody), memory);
 
         // 2. IF node
+        if (!(requestBody.get("query") instanceof Map<?, ?>)) {
+            throw MISSING_QUERY;
+        }
         Map<String, Object> query = (Map<String, Object>) requestBody.get("query");
-        ComponentResult ifRes = ifNode.execute(new ComponentContext(
-                Map.of("value1", query.get("email"), "value2", "hmchiud@tsmc.com"), globals));
+        ComponentResult ifRes = step(observations, "IF", ifNode, nodes,
+                Map.of("value1", query.get("email"), "value2", "hmchiud@tsmc.com"), memory);
         boolean ok = (boolean) ((Map<?, ?>) ifRes.data()).get("condition");
 
         if (ok) {
             // Success branch
-            nextStep.execute(new ComponentContext(
-                    Map.of("message", "Validation passed"), globals));
-            httpRequest.execute(new ComponentContext(
-                    Map.of("url", "http://localhost:5678/webhook-test/validate"), globals));
-            return respond200.execute(new ComponentContext(
-                    Map.of("responseCode", 200, "body", Map.of("email", query.get("email"))), globals)).data();
+            step(observations, "Next Step", nextStep, nodes, Map.of("message", "Validation passed"), memory);
+            ComponentResult httpRes = step(observations, "HTTP Request", httpRequest, nodes,
+                    Map.of("url", url, HttpRequestNode.SYNTHETIC, synthetic), memory);
+            if (httpRes.status() == Status.ERROR) {
+                // the node's n8n "error" output: answer with its problem instead of Respond 200
+                throw httpRes.failure();
+            }
+            return (Map<String, Object>) step(observations, "Respond 200", respond, nodes,
+                    Map.of("responseCode", 200, "body", Map.of("email", query.get("email"))), memory).data();
         } else {
             // Failure branch
-            return respond400.execute(new ComponentContext(
+            return (Map<String, Object>) step(observations, "Respond 400", respond, nodes,
                     Map.of("responseCode", 400,
-                           "body", Map.of("error", "Bad request – invalid email")), globals)).data();
+                           "body", Map.of("error", "Bad request – invalid email")), memory).data();
         }
     }
+
+    /** Synthetic runs create no spans or timers, so warm-up does not show up in production telemetry. */
+    private ObservationRegistry observations(boolean synthetic) {
+        return synthetic ? ObservationRegistry.NOOP : observations;
+    }
+
+    /** Runs one node inside its own observation (span + timer) and adds it to {@code nodes}. */
+    private ComponentResult step(ObservationRegistry observations, String node, WorkflowComponent component,
+                                 List<NodeRecord> nodes, Map<String, Object> inputs, ExecutionMemory memory) {
+        String name = component.getClass().getSimpleName();
+        Observation obs = Observation.createNotStarted("workflow.node", observations)
+                .lowCardinalityKeyValue("node", node)
+                .lowCardinalityKeyValue("component", name);
+        long start = System.nanoTime();
+        return obs.observe(() -> {
+            ComponentResult res;
+            try {
+                res = component.execute(new ComponentContext(inputs, memory.globals(), memory));
+            } catch (RuntimeException ex) {
+                nodes.add(new NodeRecord(node, name, Status.ERROR, System.nanoTime() - start,
+                        null, String.valueOf(ex.getMessage())));
+                throw ex;
+            } finally {
+                memory.afterNode(node);
+            }
+            nodes.add(new NodeRecord(node, name, res.status(), System.nanoTime() - start, res.data(), res.error()));
+            obs.lowCardinalityKeyValue("status", res.status().name());
+            obs.highCardinalityKeyValue("payload.size", String.valueOf(res.payloadSize()));
+            return res;
+        });
+    }
 }
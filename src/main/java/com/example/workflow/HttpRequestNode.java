@@ -1,23 +1,118 @@
 package com.example.workflow;
 
-import org.springframework.http.ResponseEntity;
+import com.example.workflow.concurrency.ConcurrencyLimiters;
+import com.example.workflow.concurrency.LimitScope;
+import com.example.workflow.concurrency.Permit;
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.example.workflow.memory.ExecutionMemory;
+import com.example.workflow.memory.ValueWriter;
+import com.example.workflow.quota.QuotaProperties;
+import com.example.workflow.quota.QuotaScope;
+import com.example.workflow.quota.QuotaService;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class HttpRequestNode implements WorkflowComponent {
 
-    private final RestTemplate rest = new RestTemplate();
+    // 4xx/5xx answers are results, not exceptions
+    private static final ResponseErrorHandler NO_THROW = new ResponseErrorHandler() {
+        @Override public boolean hasError(ClientHttpResponse response) { return false; }
+        @Override public void handleError(ClientHttpResponse response) { }
+    };
+
+    /**
+     * Input set to {@code true} for warm-up runs. Their loopback stub is not a
+     * downstream the host quotas and concurrency limits are meant for, so
+     * they neither spend nor create them, and the call is not observed.
+     */
+    public static final String SYNTHETIC = "synthetic";
+
+    private final RestTemplate rest;
+    private final RestTemplate syntheticRest;
+    private final QuotaService quotas;
+    private final ConcurrencyLimiters limiters;
+
+    public HttpRequestNode(RestTemplateBuilder restBuilder, QuotaService quotas, ConcurrencyLimiters limiters) {
+        // the builder carries the tracing customizers (traceparent and X-Trace-Id headers)
+        this.rest = restBuilder.errorHandler(NO_THROW).build();
+        // same client without http.client.requests timers and spans
+        this.syntheticRest = restBuilder.errorHandler(NO_THROW).build();
+        this.syntheticRest.setObservationRegistry(ObservationRegistry.NOOP);
+        this.quotas = quotas;
+        this.limiters = limiters;
+    }
 
     @Override
     public ComponentResult execute(ComponentContext ctx) {
         String url = (String) ctx.inputs().get("url");
+        if (Boolean.TRUE.equals(ctx.inputs().get(SYNTHETIC))) {
+            return call(syntheticRest, url, ctx, Permit.UNLIMITED);
+        }
+        String host = URI.create(url).getHost();
+        // waits for the downstream host's quota instead of failing fast, but only
+        // briefly on a platform thread (Tomcat worker) so a noisy flow cannot hold them all
+        QuotaProperties limits = quotas.properties();
+        CompletableFuture<Void> quota = quotas.acquire(QuotaScope.HOST, host,
+                Thread.currentThread().isVirtual() ? limits.maxWait() : limits.platformMaxWait());
+        if (quota.isCompletedExceptionally()) {
+            return ComponentResult.failed(ErrorCode.QUOTA_EXCEEDED.failure());
+        }
+        quota.join();
+        // then briefly for a slot under the host's concurrency limit
+        Permit permit;
+        try {
+            permit = limiters.acquire(LimitScope.HOST, host).join();
+        } catch (CompletionException ex) {
+            return ComponentResult.failed(ErrorCode.OVERLOADED.failure());
+        }
+        return call(rest, url, ctx, permit);
+    }
+
+    private ComponentResult call(RestTemplate rest, String url, ComponentContext ctx, Permit permit) {
         try {
-            ResponseEntity<String> resp = rest.getForEntity(url, String.class);
-            ctx.globals().put("http_response", resp.getBody());
-            return ComponentResult.ok(resp.getBody());
+            Fetched resp = rest.execute(url, HttpMethod.GET, null, r -> fetch(r, ctx.memory()));
+            permit.release(resp.status().value());
+            if (resp.status().isError()) {
+                return ComponentResult.failed(WorkflowFailure.of(ErrorCode.UPSTREAM_FAILED,
+                        url + " answered " + resp.status().value()));
+            }
+            return ComponentResult.ok(ctx.memory().put("http_response", resp.body()));
         } catch (Exception ex) {
-            return ComponentResult.error(ex.getMessage());
+            permit.dropped();
+            return ComponentResult.failed(WorkflowFailure.of(ErrorCode.UPSTREAM_FAILED, ex.getMessage()));
+        }
+    }
+
+    /** Streams the body through the execution's memory, so a large body is never on the heap whole. */
+    private static Fetched fetch(ClientHttpResponse resp, ExecutionMemory memory) throws IOException {
+        if (resp.getStatusCode().isError()) {
+            return new Fetched(resp.getStatusCode(), null);
+        }
+        ValueWriter writer = memory.writer(resp.getHeaders().getContentLength());
+        try (InputStream in = resp.getBody()) {
+            writer.transferFrom(in);
+            return new Fetched(resp.getStatusCode(), writer.finish());
+        } catch (IOException | RuntimeException ex) {
+            writer.abort();
+            throw ex;
         }
     }
+
+    private record Fetched(HttpStatusCode status, Object body) { }
 }
@@ -0,0 +1,23 @@
+package com.example.workflow;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks every {@link WorkflowComponent} bean lazy, so a component is only
+ * created when a workflow resolves it through the {@link ComponentRegistry}.
+ * New component types need no annotation of their own.
+ */
+@Component
+public class LazyComponentPostProcessor implements BeanFactoryPostProcessor {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanNamesForType(WorkflowComponent.class, true, false)) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            definition.setLazyInit(true);
+        }
+    }
+}
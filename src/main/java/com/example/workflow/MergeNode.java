@@ -0,0 +1,110 @@
+package com.example.workflow;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs the sub-flow in {@code node} once per batch produced by
+ * {@link SplitInBatchesNode}, at most {@code parallelism} batches at a time,
+ * and merges the batch outputs in input order.
+ * <p>
+ * Each batch sees {@code {"items": batch, "batchIndex": i}} as inputs and a
+ * private copy of the globals. A batch whose result data is a list
+ * contributes its elements, anything else contributes the value itself.
+ * <p>
+ * Without a {@code sink} the merged list is returned. With a {@code sink}
+ * (streaming mode) merged items are handed over as soon as every earlier
+ * batch has completed and only the item count is returned, so at most
+ * {@code parallelism} batch outputs are held in memory.
+ */
+@Component
+public class MergeNode implements WorkflowComponent {
+
+    static final int DEFAULT_PARALLELISM = 4;
+
+    // batches run with the caller's observation/trace context
+    private final ExecutorService pool = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), ContextSnapshotFactory.builder().build()::captureAll);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ComponentResult execute(ComponentContext ctx) {
+        List<List<?>> batches = (List<List<?>>) ctx.inputs().get("batches");
+        WorkflowComponent node = (WorkflowComponent) ctx.inputs().get("node");
+        Consumer<Object> sink = (Consumer<Object>) ctx.inputs().get("sink");
+        int parallelism = ctx.positiveInt("parallelism", DEFAULT_PARALLELISM);
+        if (batches == null || node == null) {
+            return ComponentResult.error("batches and node are required");
+        }
+        if (parallelism == 0) {
+            return ComponentResult.error("parallelism must be a positive number: " + ctx.inputs().get("parallelism"));
+        }
+
+        List<Object> merged = sink == null ? new ArrayList<>() : null;
+        Consumer<Object> out = sink == null ? merged::add : sink;
+        long count = 0;
+        Deque<Future<ComponentResult>> window = new ArrayDeque<>(parallelism);
+        int next = 0;
+        int index = 0;
+        try {
+            while (next < batches.size() || !window.isEmpty()) {
+                while (window.size() < parallelism && next < batches.size()) {
+                    window.add(submit(node, batches.get(next), next, ctx.globals()));
+                    next++;
+                }
+                index = next - window.size();
+                ComponentResult res = window.poll().get();
+                if (res.status() == Status.ERROR) {
+                    return ComponentResult.failed(WorkflowFailure.of(res.failure().code(),
+                            "batch " + index + ": " + res.error()));
+                }
+                if (res.data() instanceof List<?> items) {
+                    items.forEach(out);
+                    count += items.size();
+                } else {
+                    out.accept(res.data());
+                    count++;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return ComponentResult.failed(WorkflowFailure.of(ErrorCode.INTERNAL, "interrupted"));
+        } catch (ExecutionException ex) {
+            // a thrown WorkflowFailure keeps its code, anything else counts as a node failure
+            ErrorCode code = ex.getCause() instanceof WorkflowFailure failure ? failure.code() : ErrorCode.NODE_FAILED;
+            return ComponentResult.failed(WorkflowFailure.of(code,
+                    "batch " + index + ": " + String.valueOf(ex.getCause().getMessage())));
+        } finally {
+            window.forEach(f -> f.cancel(true));
+        }
+        return ComponentResult.ok(sink == null ? merged : Map.of("count", count));
+    }
+
+    private Future<ComponentResult> submit(WorkflowComponent node, List<?> batch, int index,
+                                           Map<String, Object> globals) {
+        Map<String, Object> batchGlobals = new HashMap<>(globals);
+        return pool.submit(() -> node.execute(new ComponentContext(
+                Map.of("items", batch, "batchIndex", index), batchGlobals)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
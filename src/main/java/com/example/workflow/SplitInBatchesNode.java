@@ -0,0 +1,35 @@
+package com.example.workflow;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts the {@code items} list into batches of {@code batchSize}.
+ * Batches are {@link List#subList} views, so no item is copied.
+ */
+@Component
+public class SplitInBatchesNode implements WorkflowComponent {
+
+    static final int DEFAULT_BATCH_SIZE = 100;
+
+    @Override
+    public ComponentResult execute(ComponentContext ctx) {
+        List<?> items = (List<?>) ctx.inputs().get("items");
+        int batchSize = ctx.positiveInt("batchSize", DEFAULT_BATCH_SIZE);
+        if (items == null) {
+            return ComponentResult.error("items is required");
+        }
+        if (batchSize == 0) {
+            return ComponentResult.error("batchSize must be a positive number: " + ctx.inputs().get("batchSize"));
+        }
+        // a batch never needs to be larger than the list, and the arithmetic below cannot overflow
+        batchSize = Math.min(batchSize, Math.max(items.size(), 1));
+        List<List<?>> batches = new ArrayList<>((items.size() + batchSize - 1) / batchSize);
+        for (int from = 0; from < items.size(); from += batchSize) {
+            batches.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return ComponentResult.ok(batches);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.workflow;
+
+import com.example.workflow.parallel.ItemMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Applies {@code transform} to every element of {@code items} and returns
+ * the results in input order. Large lists of costly items are mapped in
+ * parallel by {@link ItemMapper}; the optional {@code key} names the
+ * transform for its cost statistics and defaults to its class. The caller
+ * waits for the whole list, so reactive flows run this node offloaded.
+ */
+@Component
+public class TransformNode implements WorkflowComponent {
+
+    private final ItemMapper mapper;
+
+    public TransformNode(ItemMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ComponentResult execute(ComponentContext ctx) {
+        List<Object> items = (List<Object>) ctx.inputs().get("items");
+        Function<Object, Object> transform = (Function<Object, Object>) ctx.inputs().get("transform");
+        if (items == null || transform == null) {
+            return ComponentResult.error("items and transform are required");
+        }
+        String key = (String) ctx.inputs().getOrDefault("key", transform.getClass().getName());
+        try {
+            return ComponentResult.ok(mapper.map(key, items, transform));
+        } catch (RuntimeException ex) {
+            return ComponentResult.error("transform failed: " + ex.getMessage());
+        }
+    }
+}
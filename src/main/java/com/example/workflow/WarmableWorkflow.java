@@ -0,0 +1,19 @@
+package com.example.workflow;
+
+import java.util.List;
+import java.util.Map;
+
+/** A workflow entry point that the start-up warm-up can drive with synthetic executions. */
+public interface WarmableWorkflow {
+
+    String workflowId();
+
+    /** Request bodies that together take every branch of the workflow. */
+    List<Map<String, Object>> samplePayloads();
+
+    /**
+     * Runs one execution with HTTP calls sent to {@code downstreamUrl}; not recorded in history.
+     * Blocks the caller, so it is only called from the start-up runner, never from an event loop.
+     */
+    void runSynthetic(Map<String, Object> body, String downstreamUrl);
+}
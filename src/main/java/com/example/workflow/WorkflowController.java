@@ -1,25 +1,57 @@
 package com.example.workflow;
 
+import com.example.workflow.idempotency.IdempotencyService;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/workflows")
 public class WorkflowController {
 
     private final HardCodedExecutor executor;
+    private final IdempotencyService idempotency;
+    // the workflow runs with the request's observation/trace context
+    private final ExecutorService asyncPool = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), ContextSnapshotFactory.builder().build()::captureAll);
 
-    public WorkflowController(HardCodedExecutor executor) {
+    public WorkflowController(HardCodedExecutor executor, IdempotencyService idempotency) {
         this.executor = executor;
+        this.idempotency = idempotency;
     }
 
     @PostMapping("/execute")
-    public ResponseEntity<?> execute(@RequestBody Map<String, Object> body) {
-        return ResponseEntity.ok(executor.execute(body));
+    public ResponseEntity<?> execute(@RequestHeader HttpHeaders headers, @RequestBody Map<String, Object> body) {
+        IdempotencyService.Key key = idempotency.key(HardCodedExecutor.WORKFLOW_ID, headers, body);
+        if (key == null) {
+            return ResponseEntity.ok(executor.execute(body));
+        }
+        return idempotency.execute(key, () -> executor.execute(body)).toEntity();
+    }
+
+    /** Same as {@link #execute} but releases the servlet thread while the workflow runs. */
+    @PostMapping("/execute-async")
+    public CompletableFuture<ResponseEntity<?>> executeAsync(@RequestHeader HttpHeaders headers,
+                                                             @RequestBody Map<String, Object> body) {
+        return CompletableFuture.supplyAsync(() -> execute(headers, body), asyncPool);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        asyncPool.shutdownNow();
     }
 }
@@ -0,0 +1,32 @@
+package com.example.workflow;
+
+import com.example.workflow.quota.QuotaProperties;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Native-image hints. Runs at AOT build time, so every
+ * {@link WorkflowComponent} on the classpath is found by scanning rather
+ * than listed by hand.
+ */
+public class WorkflowRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(WorkflowComponent.class));
+        for (BeanDefinition candidate : scanner.findCandidateComponents(WorkflowComponent.class.getPackageName())) {
+            hints.reflection().registerType(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // request/response types bound by Jackson
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ComponentResult.class, QuotaProperties.class);
+    }
+}
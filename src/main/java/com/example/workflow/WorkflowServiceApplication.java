@@ -2,11 +2,13 @@ package com.example.workflow;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Spring Boot entry‑point.
  */
 @SpringBootApplication
+@ImportRuntimeHints(WorkflowRuntimeHints.class)
 public class WorkflowServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(WorkflowServiceApplication.class, args);
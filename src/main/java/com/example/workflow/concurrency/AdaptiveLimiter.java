@@ -0,0 +1,115 @@
+package com.example.workflow.concurrency;
+
+import com.example.workflow.error.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits up to {@link GradientLimit#limit()} concurrent requests. Requests
+ * over the limit wait in FIFO order for up to {@code maxWait}; when the queue
+ * is full or the wait runs out they fail with {@link ErrorCode#OVERLOADED}.
+ */
+public final class AdaptiveLimiter {
+
+    private final GradientLimit limit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private final Counter granted;
+    private final Counter queued;
+    private final Counter shed;
+    private final Counter dropped;
+    private int inflight;
+
+    AdaptiveLimiter(ConcurrencyProperties.Limit settings, long maxWaitNanos, MeterRegistry meters, Tags tags) {
+        this.limit = new GradientLimit(settings);
+        this.maxQueue = settings.maxQueue();
+        this.maxWaitNanos = maxWaitNanos;
+        this.granted = meters.counter("workflow.concurrency.requests", tags.and("outcome", "granted"));
+        this.queued = meters.counter("workflow.concurrency.requests", tags.and("outcome", "queued"));
+        this.shed = meters.counter("workflow.concurrency.requests", tags.and("outcome", "shed"));
+        this.dropped = meters.counter("workflow.concurrency.requests", tags.and("outcome", "dropped"));
+        Gauge.builder("workflow.concurrency.limit", this, AdaptiveLimiter::limit).tags(tags).register(meters);
+        Gauge.builder("workflow.concurrency.inflight", this, AdaptiveLimiter::inflight).tags(tags).register(meters);
+        Gauge.builder("workflow.concurrency.rtt", this, l -> l.rttMillis(false))
+                .tags(tags.and("window", "long")).baseUnit("milliseconds").register(meters);
+        Gauge.builder("workflow.concurrency.rtt", this, l -> l.rttMillis(true))
+                .tags(tags.and("window", "last")).baseUnit("milliseconds").register(meters);
+    }
+
+    /** Completes with a permit once a slot is free, or fails with {@link ErrorCode#OVERLOADED}. */
+    public CompletableFuture<Permit> acquire() {
+        CompletableFuture<Permit> waiter;
+        synchronized (this) {
+            if (inflight < limit.limit()) {
+                granted.increment();
+                return CompletableFuture.completedFuture(new Permit(this, ++inflight));
+            }
+            if (waiters.size() >= maxQueue || maxWaitNanos <= 0) {
+                shed.increment();
+                return CompletableFuture.failedFuture(ErrorCode.OVERLOADED.failure());
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        queued.increment();
+        CompletableFuture.delayedExecutor(maxWaitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            boolean expired;
+            synchronized (this) {
+                // whoever takes the waiter off the queue completes it
+                expired = waiters.remove(waiter);
+            }
+            if (expired) {
+                shed.increment();
+                waiter.completeExceptionally(ErrorCode.OVERLOADED.failure());
+            }
+        });
+        return waiter;
+    }
+
+    void release(Permit.Outcome outcome, long rttNanos, int inflightAtStart) {
+        List<CompletableFuture<Permit>> admitted = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+        synchronized (this) {
+            inflight--;
+            if (outcome != Permit.Outcome.IGNORED) {
+                limit.onSample(rttNanos, inflightAtStart, outcome == Permit.Outcome.DROPPED);
+            }
+            while (inflight < limit.limit() && !waiters.isEmpty()) {
+                admitted.add(waiters.poll());
+                permits.add(new Permit(this, ++inflight));
+            }
+        }
+        if (outcome == Permit.Outcome.DROPPED) {
+            dropped.increment();
+        }
+        // completed outside the lock: waiters continue on this thread
+        for (int i = 0; i < admitted.size(); i++) {
+            if (admitted.get(i).complete(permits.get(i))) {
+                granted.increment();
+            } else {
+                permits.get(i).ignore(); // cancelled by the caller
+            }
+        }
+    }
+
+    public synchronized int limit() {
+        return limit.limit();
+    }
+
+    public synchronized int inflight() {
+        return inflight;
+    }
+
+    private synchronized double rttMillis(boolean last) {
+        return (last ? limit.lastRttNanos() : limit.longRttNanos()) / 1e6;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.workflow.concurrency;
+
+import com.example.workflow.quota.QuotaConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConcurrencyConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimitInterceptor interceptor;
+
+    public ConcurrencyConfig(ConcurrencyLimitInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // after the quota check, so rejected requests never take a slot
+        registry.addInterceptor(interceptor).addPathPatterns(QuotaConfig.GUARDED_PATHS).order(1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.workflow.concurrency;
+
+import com.example.workflow.HardCodedExecutor;
+import com.example.workflow.error.ErrorCode;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Holds a workflow concurrency slot from before the handler until the
+ * response is complete, across an async dispatch for {@code execute-async}.
+ * Requests that cannot get a slot in time are answered with a 503.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+    private static final byte[] REJECTED = ErrorCode.OVERLOADED.failure().problemJson(null);
+
+    private final ConcurrencyLimiters limiters;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiters limiters) {
+        this.limiters = limiters;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) throws Exception {
+        if (req.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // still holds the slot from the original dispatch
+        }
+        try {
+            req.setAttribute(PERMIT, limiters.acquire(LimitScope.WORKFLOW, HardCodedExecutor.WORKFLOW_ID).join());
+            return true;
+        } catch (CompletionException ex) {
+            res.setStatus(ErrorCode.OVERLOADED.status().value());
+            res.setHeader("Retry-After", "1");
+            res.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            res.setContentLength(REJECTED.length);
+            res.getOutputStream().write(REJECTED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+        if (req.getAttribute(PERMIT) instanceof Permit permit) {
+            req.removeAttribute(PERMIT);
+            if (ex != null) {
+                permit.dropped();
+            } else {
+                permit.release(res.getStatus());
+            }
+        }
+    }
+}
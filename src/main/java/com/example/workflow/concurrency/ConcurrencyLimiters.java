@@ -0,0 +1,45 @@
+package com.example.workflow.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveLimiter} per {@link LimitScope} and key, created on first
+ * use. Workflows are limited at the entry point, hosts around each outbound
+ * call, so a slow host shrinks its own limit before it backs up whole runs.
+ */
+@Service
+@EnableConfigurationProperties(ConcurrencyProperties.class)
+public class ConcurrencyLimiters {
+
+    private final ConcurrencyProperties properties;
+    private final MeterRegistry meters;
+    private final Map<LimitScope, Map<String, AdaptiveLimiter>> limiters = new EnumMap<>(LimitScope.class);
+
+    public ConcurrencyLimiters(ConcurrencyProperties properties, MeterRegistry meters) {
+        this.properties = properties;
+        this.meters = meters;
+        for (LimitScope scope : LimitScope.values()) {
+            limiters.put(scope, new ConcurrentHashMap<>());
+        }
+    }
+
+    /** @see AdaptiveLimiter#acquire() */
+    public CompletableFuture<Permit> acquire(LimitScope scope, String key) {
+        ConcurrencyProperties.Limit limit = properties.limitFor(scope, key);
+        if (limit == null) {
+            return CompletableFuture.completedFuture(Permit.UNLIMITED);
+        }
+        return limiters.get(scope).computeIfAbsent(key, k -> new AdaptiveLimiter(limit,
+                properties.maxWait().toNanos(), meters,
+                Tags.of("scope", scope.name().toLowerCase(Locale.ROOT), "key", k))).acquire();
+    }
+}
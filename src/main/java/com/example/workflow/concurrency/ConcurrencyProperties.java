@@ -0,0 +1,58 @@
+package com.example.workflow.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Adaptive concurrency limits per workflow id and outbound host. As with
+ * quotas, an entry named {@code default} applies to every key without its own
+ * entry and keys without any entry are unlimited.
+ *
+ * @param maxWait how long a request may queue for a slot before it is shed
+ */
+@ConfigurationProperties("workflow.concurrency")
+public record ConcurrencyProperties(Map<String, Limit> workflows,
+                                    Map<String, Limit> hosts,
+                                    Duration maxWait) {
+
+    public static final String DEFAULT_KEY = "default";
+
+    public ConcurrencyProperties {
+        workflows = Objects.requireNonNullElse(workflows, Map.of());
+        hosts = Objects.requireNonNullElse(hosts, Map.of());
+        maxWait = Objects.requireNonNullElse(maxWait, Duration.ofMillis(100));
+    }
+
+    public Map<String, Limit> limits(LimitScope scope) {
+        return switch (scope) {
+            case WORKFLOW -> workflows;
+            case HOST -> hosts;
+        };
+    }
+
+    public Limit limitFor(LimitScope scope, String key) {
+        Map<String, Limit> limits = limits(scope);
+        Limit limit = limits.get(key);
+        return limit != null ? limit : limits.get(DEFAULT_KEY);
+    }
+
+    /**
+     * @param initialLimit concurrency before any RTT has been measured
+     * @param maxQueue     requests allowed to wait for a slot; more are shed at once
+     */
+    public record Limit(int initialLimit, int minLimit, int maxLimit, int maxQueue) {
+        public Limit {
+            minLimit = minLimit > 0 ? minLimit : 1;
+            maxLimit = maxLimit > 0 ? maxLimit : 1000;
+            initialLimit = initialLimit > 0 ? initialLimit : 20;
+            maxQueue = Math.max(maxQueue, 0);
+            if (minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Need minLimit <= initialLimit <= maxLimit: "
+                        + minLimit + ", " + initialLimit + ", " + maxLimit);
+            }
+        }
+    }
+}
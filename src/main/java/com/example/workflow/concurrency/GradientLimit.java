@@ -0,0 +1,70 @@
+package com.example.workflow.concurrency;
+
+/**
+ * Concurrency limit driven by the ratio of long-term to current RTT. While
+ * the current RTT stays within {@link #TOLERANCE} of the long-term average
+ * the limit grows by about {@code sqrt(limit)} per sample; as the RTT rises
+ * above it the limit shrinks in proportion, by at most half per sample. A
+ * dropped request (timeout, 5xx, 429) backs the limit off multiplicatively.
+ * Not thread-safe; {@link AdaptiveLimiter} calls it under its lock.
+ */
+final class GradientLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double longRtt;
+    private double lastRtt;
+    private long samples;
+
+    GradientLimit(ConcurrencyProperties.Limit settings) {
+        this.minLimit = settings.minLimit();
+        this.maxLimit = settings.maxLimit();
+        this.limit = settings.initialLimit();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    double longRttNanos() {
+        return longRtt;
+    }
+
+    double lastRttNanos() {
+        return lastRtt;
+    }
+
+    /** @param inflight requests in flight when this one was admitted */
+    void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * BACKOFF);
+            return;
+        }
+        double rtt = Math.max(1, rttNanos);
+        lastRtt = rtt;
+        samples++;
+        // plain mean over the first LONG_WINDOW samples, then an exponential average
+        longRtt += (rtt - longRtt) / Math.min(samples, LONG_WINDOW);
+        if (longRtt / rtt > 2) {
+            // the average still remembers a slow period that is over
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rtt));
+        double next = limit * gradient + Math.sqrt(limit);
+        if (next > limit && inflight < limit / 2) {
+            // demand, not the downstream, is what holds concurrency down: don't grow
+            return;
+        }
+        limit = clamp(limit * (1 - SMOOTHING) + next * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.workflow.concurrency;
+
+public enum LimitScope {
+    WORKFLOW,
+    HOST
+}
@@ -0,0 +1,57 @@
+package com.example.workflow.concurrency;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One slot of an {@link AdaptiveLimiter}. Exactly the first of
+ * {@link #success}, {@link #dropped}, {@link #ignore} or {@link #release}
+ * frees the slot; later calls do nothing, so callers can add a final
+ * {@code ignore()} on every path.
+ */
+public final class Permit {
+
+    /** For keys without a limit and calls that bypass limits. */
+    public static final Permit UNLIMITED = new Permit(null, 0);
+
+    private final AdaptiveLimiter limiter;
+    private final int inflight;
+    private final long start = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    Permit(AdaptiveLimiter limiter, int inflight) {
+        this.limiter = limiter;
+        this.inflight = inflight;
+    }
+
+    /** Completed in time; its RTT is a sample for the limit. */
+    public void success() {
+        release(Outcome.SUCCESS);
+    }
+
+    /** Timed out or was refused for overload; backs the limit off. */
+    public void dropped() {
+        release(Outcome.DROPPED);
+    }
+
+    /** Frees the slot without a sample, e.g. when the call never happened. */
+    public void ignore() {
+        release(Outcome.IGNORED);
+    }
+
+    /** {@link #dropped} for 5xx and 429 answers, {@link #success} for the rest. */
+    public void release(int httpStatus) {
+        if (httpStatus >= 500 || httpStatus == 429) {
+            dropped();
+        } else {
+            success();
+        }
+    }
+
+    private void release(Outcome outcome) {
+        if (limiter != null && released.compareAndSet(false, true)) {
+            limiter.release(outcome, System.nanoTime() - start, inflight);
+        }
+    }
+
+    enum Outcome { SUCCESS, DROPPED, IGNORED }
+}
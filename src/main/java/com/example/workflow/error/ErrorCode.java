@@ -0,0 +1,45 @@
+package com.example.workflow.error;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Typed failure codes. Each code carries its RFC 7807 type, title and HTTP
+ * status, the serialized start of its problem body, and one preallocated
+ * {@link WorkflowFailure} for outcomes that need no per-call detail.
+ */
+public enum ErrorCode {
+    VALIDATION_FAILED(HttpStatus.BAD_REQUEST, "Validation failed"),
+    QUOTA_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "Too many requests"),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused"),
+    UPSTREAM_FAILED(HttpStatus.BAD_GATEWAY, "Upstream call failed"),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "Service overloaded"),
+    NODE_FAILED(HttpStatus.INTERNAL_SERVER_ERROR, "Node failed"),
+    INTERNAL(HttpStatus.INTERNAL_SERVER_ERROR, "Internal error");
+
+    private final HttpStatus status;
+    private final String title;
+    private final String type;
+    private final byte[] problemPrefix;
+    private final WorkflowFailure failure;
+
+    ErrorCode(HttpStatus status, String title) {
+        this.status = status;
+        this.title = title;
+        this.type = "urn:workflow:error:" + name().toLowerCase(Locale.ROOT).replace('_', '-');
+        this.problemPrefix = ("{\"type\":\"" + type + "\",\"title\":\"" + title + "\",\"status\":" + status.value()
+                + ",\"code\":\"" + name() + "\"").getBytes(StandardCharsets.UTF_8);
+        this.failure = new WorkflowFailure(this, title);
+    }
+
+    public HttpStatus status() { return status; }
+    public String title() { return title; }
+    public String type() { return type; }
+
+    /** Shared failure for this code, detail = title. */
+    public WorkflowFailure failure() { return failure; }
+
+    byte[] problemPrefix() { return problemPrefix; }
+}
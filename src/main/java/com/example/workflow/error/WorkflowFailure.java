@@ -0,0 +1,89 @@
+package com.example.workflow.error;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A failure carried in {@code ComponentResult} or thrown to the controller.
+ * It records no stack trace and no suppressed exceptions, so creating or
+ * throwing one for expected outcomes is cheap; constant failures can be kept
+ * in static fields and reused.
+ */
+public class WorkflowFailure extends RuntimeException {
+
+    private static final byte[] DETAIL = ",\"detail\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INSTANCE = "\",\"instance\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ErrorCode code;
+    // body without an instance, built on first use and kept for reused failures
+    private volatile byte[] problem;
+
+    WorkflowFailure(ErrorCode code, String detail) {
+        super(detail, null, false, false);
+        this.code = code;
+    }
+
+    public static WorkflowFailure of(ErrorCode code, String detail) {
+        return new WorkflowFailure(code, detail);
+    }
+
+    public ErrorCode code() {
+        return code;
+    }
+
+    /**
+     * RFC 7807 body: the code's preallocated prefix plus the detail and, if
+     * given, the instance. Without an instance the bytes are serialized once
+     * per failure and every call gets its own copy; callers that send the
+     * same body repeatedly keep the result.
+     */
+    public byte[] problemJson(String instance) {
+        if (instance != null) {
+            return build(instance);
+        }
+        byte[] body = problem;
+        if (body == null) {
+            problem = body = build(null);
+        }
+        return body.clone();
+    }
+
+    private byte[] build(String instance) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        out.writeBytes(code.problemPrefix());
+        out.writeBytes(DETAIL);
+        escape(getMessage(), out);
+        if (instance != null) {
+            out.writeBytes(INSTANCE);
+            escape(instance, out);
+        }
+        out.writeBytes(END);
+        return out.toByteArray();
+    }
+
+    private static void escape(String s, ByteArrayOutputStream out) {
+        if (s == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 8);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        out.writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
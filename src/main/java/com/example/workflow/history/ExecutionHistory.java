@@ -0,0 +1,118 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records workflow executions off the request thread: {@link #record} only
+ * enqueues, and a single writer thread appends to the {@link ExecutionStore}.
+ * When the queue is full the record is dropped and counted rather than
+ * slowing the request down. The writer numbers records as it appends them,
+ * which keeps ids in storage order for the {@code before} cursor.
+ */
+@Service
+@EnableConfigurationProperties(HistoryProperties.class)
+public class ExecutionHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionHistory.class);
+    private static final long RETENTION_CHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HistoryProperties properties;
+    private final ExecutionStore store;
+    private final BlockingQueue<ExecutionRecord> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public ExecutionHistory(HistoryProperties properties, MeterRegistry meters) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.written = meters.counter("workflow.history.records", "outcome", "written");
+        this.dropped = meters.counter("workflow.history.records", "outcome", "dropped");
+        if (!properties.enabled()) {
+            this.store = null;
+            this.writer = null;
+            return;
+        }
+        try {
+            this.store = new ExecutionStore(properties.dir(), Math.toIntExact(properties.segmentSize().toBytes()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open execution history in " + properties.dir(), ex);
+        }
+        Gauge.builder("workflow.history.queue", queue, BlockingQueue::size).register(meters);
+        Gauge.builder("workflow.history.segments", store, ExecutionStore::segmentCount).register(meters);
+        this.writer = Thread.ofPlatform().name("execution-history-writer").daemon().start(this::drain);
+    }
+
+    public void record(ExecutionRecord record) {
+        if (store != null && !queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    public HistoryPage query(String workflowId, Status status, Long from, Long to, Long before, int limit) {
+        return store == null ? new HistoryPage(List.of(), null)
+                : store.query(workflowId, status, from, to, before, limit);
+    }
+
+    public ExecutionRecord find(long id) {
+        return store == null ? null : store.find(id);
+    }
+
+    private void drain() {
+        long lastId = store.maxId();
+        long nextRetentionCheck = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            try {
+                ExecutionRecord record = queue.poll(1, TimeUnit.SECONDS);
+                if (record != null) {
+                    record = record.withId(lastId + 1);
+                    if (store.append(record)) {
+                        lastId = record.id();
+                        written.increment();
+                    } else {
+                        log.warn("Execution {} is larger than a history segment, dropped", record.id());
+                        dropped.increment();
+                    }
+                }
+                if (System.nanoTime() - nextRetentionCheck >= 0) {
+                    nextRetentionCheck = System.nanoTime() + RETENTION_CHECK_NANOS;
+                    int removed = store.dropOlderThan(System.currentTimeMillis() - properties.retention().toMillis());
+                    if (removed > 0) {
+                        log.info("Dropped {} expired execution history segments", removed);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Execution history write failed", ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() throws Exception {
+        if (store == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        store.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+import com.example.workflow.WorkflowController;
+import com.example.workflow.reactive.ReactiveWorkflowController;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/executions")
+public class ExecutionHistoryController {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final ExecutionHistory history;
+    private final WorkflowController workflows;
+    private final ReactiveWorkflowController reactiveWorkflows;
+
+    /** Exactly one of the workflow controllers exists, depending on the web application type. */
+    public ExecutionHistoryController(ExecutionHistory history,
+                                      ObjectProvider<WorkflowController> workflows,
+                                      ObjectProvider<ReactiveWorkflowController> reactiveWorkflows) {
+        this.history = history;
+        this.workflows = workflows.getIfAvailable();
+        this.reactiveWorkflows = reactiveWorkflows.getIfAvailable();
+    }
+
+    @GetMapping
+    public HistoryPage query(@RequestParam(required = false) String workflowId,
+                             @RequestParam(required = false) Status status,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                             @RequestParam(required = false) Long before,
+                             @RequestParam(defaultValue = "50") int limit) {
+        return history.query(workflowId, status,
+                from == null ? null : from.toEpochMilli(),
+                to == null ? null : to.toEpochMilli(),
+                before, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExecutionRecord> get(@PathVariable long id) {
+        ExecutionRecord record = history.find(id);
+        return record == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(record);
+    }
+
+    /**
+     * Runs the workflow again with the recorded input, as a new execution. The
+     * quota and concurrency guards cover this path like {@code /workflows/**},
+     * and the run goes through the same controller, so an {@code Idempotency-Key}
+     * makes retries of a replay run it once.
+     */
+    @PostMapping("/{id}/replay")
+    public Mono<ResponseEntity<?>> replay(@PathVariable long id, @RequestHeader HttpHeaders headers) {
+        ExecutionRecord record = history.find(id);
+        if (record == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return reactiveWorkflows != null
+                ? reactiveWorkflows.execute(headers, record.input())
+                : Mono.fromSupplier(() -> workflows.execute(headers, record.input()));
+    }
+}
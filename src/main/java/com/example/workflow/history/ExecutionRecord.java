@@ -0,0 +1,37 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything kept about one workflow run: its input, each node's output and
+ * timing, and the first error. The id is assigned by
+ * {@link ExecutionHistory} when the record is written, so ids grow in
+ * storage order; records are handed over with id 0.
+ */
+public record ExecutionRecord(long id,
+                              String workflowId,
+                              Status status,
+                              long startedAt,
+                              long durationNanos,
+                              Map<String, Object> input,
+                              List<NodeRecord> nodes,
+                              String error) {
+
+    public record NodeRecord(String node,
+                             String component,
+                             Status status,
+                             long durationNanos,
+                             Object output,
+                             String error) { }
+
+    public ExecutionSummary summary() {
+        return new ExecutionSummary(id, workflowId, status, startedAt, durationNanos);
+    }
+
+    ExecutionRecord withId(long id) {
+        return new ExecutionRecord(id, workflowId, status, startedAt, durationNanos, input, nodes, error);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Segment files plus their in-memory index. Written by a single thread;
+ * queries and retention share the same monitor.
+ */
+final class ExecutionStore {
+
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final RecordCodec codec = new RecordCodec();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long maxId;
+
+    ExecutionStore(Path dir, int segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(SUFFIX)).sorted().toList()) {
+                Segment segment = Segment.open(file);
+                segments.addLast(segment);
+                maxId = Math.max(maxId, segment.maxId);
+            }
+        }
+    }
+
+    synchronized long maxId() {
+        return maxId;
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /** Returns false if the record cannot fit even in an empty segment. */
+    synchronized boolean append(ExecutionRecord record) throws IOException {
+        Segment active = segments.peekLast();
+        if (active == null || !active.isWritable()) {
+            active = roll(record.id());
+        }
+        List<String> added = new ArrayList<>();
+        RecordCodec.Buffer body = codec.encodeRecord(record, active.keys, added);
+        RecordCodec.Buffer keys = added.isEmpty() ? null : codec.encodeKeys(added);
+        if (!active.fits(frameSize(body, keys))) {
+            // keys only reach the dictionary together with the KEYS frame that defines them
+            active.keys.rollback(added);
+            if (active.isEmpty()) {
+                return false;
+            }
+            active = roll(record.id());
+            body = codec.encodeRecord(record, active.keys, added);
+            keys = added.isEmpty() ? null : codec.encodeKeys(added);
+            if (!active.fits(frameSize(body, keys))) {
+                active.keys.rollback(added);
+                return false;
+            }
+        }
+        if (keys != null) {
+            active.append(Segment.KEYS, keys);
+        }
+        active.index(record.summary(), active.append(Segment.RECORD, body));
+        maxId = Math.max(maxId, record.id());
+        return true;
+    }
+
+    private static int frameSize(RecordCodec.Buffer body, RecordCodec.Buffer keys) {
+        int size = Segment.FRAME_HEADER + body.length();
+        return keys == null ? size : size + Segment.FRAME_HEADER + keys.length();
+    }
+
+    private Segment roll(long firstId) throws IOException {
+        Segment last = segments.peekLast();
+        if (last != null) {
+            last.seal();
+        }
+        Segment segment = Segment.create(dir.resolve(String.format("%020d%s", firstId, SUFFIX)), segmentSize);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    synchronized HistoryPage query(String workflowId, Status status, Long from, Long to, Long before, int limit) {
+        List<ExecutionSummary> items = new ArrayList<>(limit);
+        Iterator<Segment> it = segments.descendingIterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            if ((from != null && segment.maxStartedAt < from) || (to != null && segment.minStartedAt > to)
+                    || (before != null && segment.minId >= before)) {
+                continue;
+            }
+            List<Segment.Entry> entries = candidates(segment, workflowId, status);
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                ExecutionSummary s = entries.get(i).summary();
+                if ((before == null || s.id() < before)
+                        && (workflowId == null || workflowId.equals(s.workflowId()))
+                        && (status == null || s.status() == status)
+                        && (from == null || s.startedAt() >= from)
+                        && (to == null || s.startedAt() <= to)) {
+                    if (items.size() == limit) {
+                        return new HistoryPage(items, items.get(limit - 1).id());
+                    }
+                    items.add(s);
+                }
+            }
+        }
+        return new HistoryPage(items, null);
+    }
+
+    /** The shortest index list that holds every match; the remaining filters are checked per entry. */
+    private static List<Segment.Entry> candidates(Segment segment, String workflowId, Status status) {
+        List<Segment.Entry> entries = segment.entries;
+        if (workflowId != null) {
+            entries = segment.byWorkflow.getOrDefault(workflowId, List.of());
+        }
+        if (status != null) {
+            List<Segment.Entry> byStatus = segment.byStatus.getOrDefault(status, List.of());
+            if (byStatus.size() < entries.size()) {
+                entries = byStatus;
+            }
+        }
+        return entries;
+    }
+
+    synchronized ExecutionRecord find(long id) {
+        Iterator<Segment> it = segments.descendingIterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            if (id < segment.minId || id > segment.maxId) {
+                continue;
+            }
+            for (int i = segment.entries.size() - 1; i >= 0; i--) {
+                Segment.Entry entry = segment.entries.get(i);
+                if (entry.summary().id() == id) {
+                    return segment.read(entry);
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Drops every sealed segment whose newest record started before {@code cutoff}. */
+    synchronized int dropOlderThan(long cutoff) throws IOException {
+        int dropped = 0;
+        while (segments.size() > 1 && segments.peekFirst().maxStartedAt < cutoff) {
+            segments.pollFirst().delete();
+            dropped++;
+        }
+        return dropped;
+    }
+
+    synchronized void close() throws IOException {
+        Segment last = segments.peekLast();
+        if (last != null) {
+            last.seal();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+
+/** Indexed part of an {@link ExecutionRecord}, answered without decoding the record. */
+public record ExecutionSummary(long id,
+                               String workflowId,
+                               Status status,
+                               long startedAt,
+                               long durationNanos) { }
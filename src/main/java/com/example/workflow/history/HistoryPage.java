@@ -0,0 +1,6 @@
+package com.example.workflow.history;
+
+import java.util.List;
+
+/** One page of executions, newest first; pass {@code next} as {@code before} for the following page. */
+public record HistoryPage(List<ExecutionSummary> items, Long next) { }
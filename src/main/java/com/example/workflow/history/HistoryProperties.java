@@ -0,0 +1,27 @@
+package com.example.workflow.history;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+@ConfigurationProperties("workflow.history")
+public record HistoryProperties(boolean enabled,
+                                Path dir,
+                                DataSize segmentSize,
+                                Duration retention,
+                                int queueCapacity) {
+
+    public HistoryProperties {
+        dir = Objects.requireNonNullElse(dir, Path.of(System.getProperty("java.io.tmpdir"), "workflow-history"));
+        segmentSize = Objects.requireNonNullElse(segmentSize, DataSize.ofMegabytes(64));
+        if (segmentSize.toBytes() <= 0 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            // segments are mapped as one buffer and addressed with int offsets
+            throw new IllegalArgumentException("workflow.history.segment-size must be between 1B and 2GB: " + segmentSize);
+        }
+        retention = Objects.requireNonNullElse(retention, Duration.ofDays(7));
+        queueCapacity = queueCapacity > 0 ? queueCapacity : 10_000;
+    }
+}
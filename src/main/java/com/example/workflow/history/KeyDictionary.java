@@ -0,0 +1,41 @@
+package com.example.workflow.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Per-segment string dictionary; ids are assigned in first-use order. */
+final class KeyDictionary {
+
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /** Id of {@code key}, assigning the next id and adding it to {@code added} if new. */
+    int id(String key, List<String> added) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = keys.size();
+            add(key);
+            added.add(key);
+        }
+        return id;
+    }
+
+    void add(String key) {
+        ids.put(key, keys.size());
+        keys.add(key);
+    }
+
+    /** Undoes the ids {@link #id} just assigned to {@code added}, for a record that was not written. */
+    void rollback(List<String> added) {
+        for (int i = added.size() - 1; i >= 0; i--) {
+            ids.remove(keys.remove(keys.size() - 1));
+        }
+        added.clear();
+    }
+
+    String key(int id) {
+        return keys.get(id);
+    }
+}
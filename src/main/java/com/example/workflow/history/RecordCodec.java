@@ -0,0 +1,237 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of {@link ExecutionRecord}s.
+ * <p>
+ * Map keys, workflow ids, node and component names go through the segment's
+ * {@link KeyDictionary} and are written as varint ids; keys seen for the first
+ * time are returned to the caller, which writes them in a dictionary frame
+ * ahead of the record. Values are tagged: null, booleans, zigzag varint ints
+ * and longs, doubles, UTF-8 strings, lists and maps. Anything else is stored
+ * as its {@code toString()}.
+ */
+final class RecordCodec {
+
+    private static final byte NULL = 0, FALSE = 1, TRUE = 2, INT = 3, LONG = 4, DOUBLE = 5,
+            STRING = 6, LIST = 7, MAP = 8;
+    private static final Status[] STATUSES = Status.values();
+
+    private final Buffer out = new Buffer();
+    private final Buffer keysOut = new Buffer();
+
+    /** Encodes a record; the returned buffer is reused by the next call. */
+    Buffer encodeRecord(ExecutionRecord r, KeyDictionary keys, List<String> added) {
+        out.reset();
+        out.writeVarLong(r.id());
+        writeKey(r.workflowId(), keys, added);
+        out.writeByte(r.status().ordinal());
+        out.writeLong(r.startedAt());
+        out.writeVarLong(r.durationNanos());
+        writeValue(r.error(), keys, added);
+        writeValue(r.input(), keys, added);
+        out.writeVarLong(r.nodes().size());
+        for (ExecutionRecord.NodeRecord n : r.nodes()) {
+            writeKey(n.node(), keys, added);
+            writeKey(n.component(), keys, added);
+            out.writeByte(n.status().ordinal());
+            out.writeVarLong(n.durationNanos());
+            writeValue(n.output(), keys, added);
+            writeValue(n.error(), keys, added);
+        }
+        return out;
+    }
+
+    Buffer encodeKeys(List<String> keys) {
+        keysOut.reset();
+        keysOut.writeVarLong(keys.size());
+        keys.forEach(keysOut::writeString);
+        return keysOut;
+    }
+
+    static List<String> decodeKeys(ByteBuffer in) {
+        int n = (int) readVarLong(in);
+        List<String> keys = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            keys.add(readString(in));
+        }
+        return keys;
+    }
+
+    static ExecutionSummary decodeSummary(ByteBuffer in, KeyDictionary keys) {
+        long id = readVarLong(in);
+        String workflowId = keys.key((int) readVarLong(in));
+        Status status = STATUSES[in.get()];
+        long startedAt = in.getLong();
+        long duration = readVarLong(in);
+        return new ExecutionSummary(id, workflowId, status, startedAt, duration);
+    }
+
+    @SuppressWarnings("unchecked")
+    static ExecutionRecord decodeRecord(ByteBuffer in, KeyDictionary keys) {
+        ExecutionSummary s = decodeSummary(in, keys);
+        String error = (String) readValue(in, keys);
+        Map<String, Object> input = (Map<String, Object>) readValue(in, keys);
+        int n = (int) readVarLong(in);
+        List<ExecutionRecord.NodeRecord> nodes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            nodes.add(new ExecutionRecord.NodeRecord(
+                    keys.key((int) readVarLong(in)),
+                    keys.key((int) readVarLong(in)),
+                    STATUSES[in.get()],
+                    readVarLong(in),
+                    readValue(in, keys),
+                    (String) readValue(in, keys)));
+        }
+        return new ExecutionRecord(s.id(), s.workflowId(), s.status(), s.startedAt(), s.durationNanos(),
+                input, nodes, error);
+    }
+
+    private void writeKey(String key, KeyDictionary keys, List<String> added) {
+        out.writeVarLong(keys.id(key, added));
+    }
+
+    private void writeValue(Object v, KeyDictionary keys, List<String> added) {
+        if (v == null) {
+            out.writeByte(NULL);
+        } else if (v instanceof Boolean b) {
+            out.writeByte(b ? TRUE : FALSE);
+        } else if (v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            out.writeByte(INT);
+            out.writeVarLong(zigzag(((Number) v).longValue()));
+        } else if (v instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeVarLong(zigzag(l));
+        } else if (v instanceof Double || v instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(((Number) v).doubleValue()));
+        } else if (v instanceof Collection<?> c) {
+            out.writeByte(LIST);
+            out.writeVarLong(c.size());
+            for (Object e : c) {
+                writeValue(e, keys, added);
+            }
+        } else if (v instanceof Map<?, ?> m) {
+            out.writeByte(MAP);
+            out.writeVarLong(m.size());
+            for (Map.Entry<?, ?> e : m.entrySet()) {
+                writeKey(String.valueOf(e.getKey()), keys, added);
+                writeValue(e.getValue(), keys, added);
+            }
+        } else {
+            out.writeByte(STRING);
+            out.writeString(v.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuffer in, KeyDictionary keys) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL: return null;
+            case FALSE: return false;
+            case TRUE: return true;
+            case INT: return (int) unzigzag(readVarLong(in));
+            case LONG: return unzigzag(readVarLong(in));
+            case DOUBLE: return Double.longBitsToDouble(in.getLong());
+            case STRING: return readString(in);
+            case LIST: {
+                int n = (int) readVarLong(in);
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    list.add(readValue(in, keys));
+                }
+                return list;
+            }
+            case MAP: {
+                int n = (int) readVarLong(in);
+                Map<String, Object> map = new LinkedHashMap<>(n * 2);
+                for (int i = 0; i < n; i++) {
+                    String key = keys.key((int) readVarLong(in));
+                    map.put(key, readValue(in, keys));
+                }
+                return map;
+            }
+            default: throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] b = new byte[(int) readVarLong(in)];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Growable write buffer. */
+    static final class Buffer {
+        private byte[] buf = new byte[4096];
+        private int pos;
+
+        void reset() { pos = 0; }
+        byte[] array() { return buf; }
+        int length() { return pos; }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeLong(long v) {
+            ensure(8);
+            for (int i = 7; i >= 0; i--) {
+                buf[pos++] = (byte) (v >>> (i * 8));
+            }
+        }
+
+        void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeString(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(b.length);
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, pos, b.length);
+            pos += b.length;
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only, memory-mapped segment file. Frames are
+ * {@code [int length][byte kind][body]}; a zero length marks the end of the
+ * written part. The in-memory index of a segment is rebuilt by scanning it;
+ * the scan stops at the first frame that is cut short or does not decode,
+ * which is where a crash interrupted the last append.
+ */
+final class Segment {
+
+    static final byte KEYS = 1;
+    static final byte RECORD = 2;
+    static final int FRAME_HEADER = 5;
+
+    final Path path;
+    final KeyDictionary keys = new KeyDictionary();
+    final List<Entry> entries = new ArrayList<>();
+    final Map<String, List<Entry>> byWorkflow = new HashMap<>();
+    final Map<Status, List<Entry>> byStatus = new EnumMap<>(Status.class);
+    long minStartedAt = Long.MAX_VALUE;
+    long maxStartedAt = Long.MIN_VALUE;
+    long minId = Long.MAX_VALUE;
+    long maxId = Long.MIN_VALUE;
+
+    private FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    record Entry(ExecutionSummary summary, int offset) { }
+
+    private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Segment create(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, CREATE_NEW, READ, WRITE);
+        return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+    }
+
+    /** Opens a segment left by an earlier run, sealed. */
+    static Segment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ, WRITE)) {
+            Segment segment = new Segment(path, null,
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            segment.scan();
+            channel.truncate(segment.position);
+            return segment;
+        }
+    }
+
+    private void scan() {
+        while (position + FRAME_HEADER <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + 4 + length > buffer.limit()) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(position + FRAME_HEADER, length - 1);
+            try {
+                if (buffer.get(position + 4) == KEYS) {
+                    RecordCodec.decodeKeys(body).forEach(keys::add);
+                } else {
+                    index(RecordCodec.decodeSummary(body, keys), position);
+                }
+            } catch (RuntimeException torn) {
+                break;
+            }
+            position += 4 + length;
+        }
+    }
+
+    boolean isWritable() {
+        return channel != null;
+    }
+
+    boolean isEmpty() {
+        return position == 0;
+    }
+
+    boolean fits(int bytes) {
+        return isWritable() && position + bytes <= buffer.capacity();
+    }
+
+    /** Writes one frame and returns its offset; callers check {@link #fits} first. */
+    int append(byte kind, RecordCodec.Buffer body) {
+        int offset = position;
+        buffer.put(offset + FRAME_HEADER, body.array(), 0, body.length());
+        buffer.put(offset + 4, kind);
+        buffer.putInt(offset, body.length() + 1);
+        position += FRAME_HEADER + body.length();
+        return offset;
+    }
+
+    void index(ExecutionSummary summary, int offset) {
+        Entry entry = new Entry(summary, offset);
+        entries.add(entry);
+        byWorkflow.computeIfAbsent(summary.workflowId(), k -> new ArrayList<>()).add(entry);
+        byStatus.computeIfAbsent(summary.status(), k -> new ArrayList<>()).add(entry);
+        minStartedAt = Math.min(minStartedAt, summary.startedAt());
+        maxStartedAt = Math.max(maxStartedAt, summary.startedAt());
+        minId = Math.min(minId, summary.id());
+        maxId = Math.max(maxId, summary.id());
+    }
+
+    ExecutionRecord read(Entry entry) {
+        int length = buffer.getInt(entry.offset());
+        return RecordCodec.decodeRecord(buffer.slice(entry.offset() + FRAME_HEADER, length - 1), keys);
+    }
+
+    /** Stops appending and gives back the unused preallocated tail of the file. */
+    void seal() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.truncate(position);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    void delete() throws IOException {
+        seal();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.workflow.idempotency;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only file of stored responses, frames of
+ * {@code [int len][long expiresAt][short keyLen][byte requestLen][key][request][body]},
+ * where {@code request} is the hash of the request that produced the body
+ * (empty when it is not checked). It is rewritten with only the live entries
+ * on open and by {@link #compact}; a torn frame at the end (crash during a
+ * write), or a frame that does not add up, ends the load. Not thread-safe: after opening, only the store's writer thread uses it.
+ */
+final class IdempotencyLog implements AutoCloseable {
+
+    private static final int HEADER = Long.BYTES + Short.BYTES + Byte.BYTES;
+
+    private final Path file;
+    private FileChannel channel;
+    private int appended;
+
+    IdempotencyLog(Path file) throws IOException {
+        this.file = file;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+    }
+
+    /** Reads every frame into {@code into}, later frames replacing earlier ones for the same key. */
+    void load(Map<String, IdempotencyStore.Entry> into) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file, READ)) {
+            ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (buf.remaining() >= Integer.BYTES) {
+                int len = buf.getInt();
+                if (len < HEADER || len > buf.remaining()) {
+                    break;
+                }
+                long expiresAt = buf.getLong();
+                int keyLength = buf.getShort() & 0xFFFF;
+                int requestLength = buf.get() & 0xFF;
+                if (keyLength + requestLength > len - HEADER) {
+                    break;
+                }
+                byte[] key = new byte[keyLength];
+                byte[] request = requestLength == 0 ? null : new byte[requestLength];
+                byte[] body = new byte[len - HEADER - keyLength - requestLength];
+                buf.get(key);
+                if (request != null) {
+                    buf.get(request);
+                }
+                buf.get(body);
+                into.put(new String(key, StandardCharsets.UTF_8), new IdempotencyStore.Entry(expiresAt, request, body));
+            }
+        }
+    }
+
+    void append(String key, IdempotencyStore.Entry entry) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file, CREATE, WRITE, APPEND);
+        }
+        write(channel, key, entry);
+        appended++;
+    }
+
+    /** Frames written since the last {@link #compact}. */
+    int appended() {
+        return appended;
+    }
+
+    /** Replaces the file with one frame per live entry. */
+    void compact(Map<String, IdempotencyStore.Entry> live) throws IOException {
+        close();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, IdempotencyStore.Entry> e : live.entrySet()) {
+                write(out, e.getKey(), e.getValue());
+            }
+            out.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appended = 0;
+    }
+
+    private static void write(FileChannel out, String key, IdempotencyStore.Entry entry) throws IOException {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] request = entry.request() == null ? new byte[0] : entry.request();
+        int len = HEADER + k.length + request.length + entry.body().length;
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + len)
+                .putInt(len)
+                .putLong(entry.expiresAt())
+                .putShort((short) k.length)
+                .put((byte) request.length)
+                .put(k)
+                .put(request)
+                .put(entry.body())
+                .flip();
+        while (frame.hasRemaining()) {
+            out.write(frame);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.workflow.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * @param header    request header carrying a caller-chosen key
+ * @param keyFields dotted payload paths hashed into a key when the header is absent;
+ *                  empty means only the header is used
+ */
+@ConfigurationProperties("workflow.idempotency")
+public record IdempotencyProperties(boolean enabled,
+                                    String header,
+                                    List<String> keyFields,
+                                    Duration ttl,
+                                    int maxEntries,
+                                    Path file) {
+
+    public IdempotencyProperties {
+        header = Objects.requireNonNullElse(header, "Idempotency-Key");
+        keyFields = keyFields == null ? List.of() : List.copyOf(keyFields);
+        ttl = Objects.requireNonNullElse(ttl, Duration.ofHours(24));
+        maxEntries = maxEntries > 0 ? maxEntries : 100_000;
+        file = Objects.requireNonNullElse(file, Path.of(System.getProperty("java.io.tmpdir"), "workflow-idempotency.log"));
+    }
+}
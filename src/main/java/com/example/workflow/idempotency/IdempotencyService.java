@@ -0,0 +1,241 @@
+package com.example.workflow.idempotency;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs each idempotency key at most once per TTL. The first request for a key
+ * executes, concurrent duplicates wait for it, and later duplicates get the
+ * stored response. Only successful responses are stored, so a retry after a
+ * failure runs again. Keys are scoped by workflow and tenant, so callers never
+ * see each other's responses.
+ */
+@Service
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyService {
+
+    /**
+     * A deduplication key plus the hash of the request it was sent with,
+     * {@code null} when the key is derived from the payload itself.
+     */
+    public record Key(String id, byte[] request) { }
+
+    private record Pending(byte[] request, CompletableFuture<byte[]> body) { }
+
+    /** Response body plus whether it came from an earlier execution. */
+    public record Response(byte[] body, boolean replayed) {
+
+        public ResponseEntity<byte[]> toEntity() {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Idempotent-Replayed", String.valueOf(replayed))
+                    .body(body);
+        }
+    }
+
+    private static final String TENANT_HEADER = "X-USER-ID";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final WorkflowFailure KEY_TOO_LONG = WorkflowFailure.of(ErrorCode.VALIDATION_FAILED,
+            "Idempotency key is longer than " + MAX_KEY_LENGTH + " characters");
+    private static final WorkflowFailure TENANT_TOO_LONG = WorkflowFailure.of(ErrorCode.VALIDATION_FAILED,
+            TENANT_HEADER + " is longer than " + MAX_KEY_LENGTH + " characters");
+    private static final WorkflowFailure KEY_REUSED = WorkflowFailure.of(ErrorCode.IDEMPOTENCY_KEY_REUSED,
+            "Idempotency key was already used with a different request");
+
+    private final IdempotencyProperties properties;
+    private final ObjectMapper json;
+    // map keys sorted, so the same body in another field order hashes the same
+    private final ObjectWriter canonical;
+    private final IdempotencyStore store;
+    private final Map<String, Pending> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter joined;
+
+    public IdempotencyService(IdempotencyProperties properties, ObjectMapper json, MeterRegistry meters) {
+        this.properties = properties;
+        this.json = json;
+        this.canonical = json.writer(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.executed = meters.counter("workflow.idempotency.requests", "outcome", "executed");
+        this.replayed = meters.counter("workflow.idempotency.requests", "outcome", "replayed");
+        this.joined = meters.counter("workflow.idempotency.requests", "outcome", "joined");
+        if (!properties.enabled()) {
+            this.store = null;
+            return;
+        }
+        try {
+            this.store = new IdempotencyStore(properties.maxEntries(), new IdempotencyLog(properties.file()),
+                    System.currentTimeMillis());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open idempotency store " + properties.file(), ex);
+        }
+        Gauge.builder("workflow.idempotency.entries", store, IdempotencyStore::size).register(meters);
+    }
+
+    /**
+     * The key for a request: the configured header if present, otherwise a hash
+     * of the configured payload fields, otherwise {@code null} (not deduplicated).
+     * Either is prefixed with the workflow id and the {@code X-USER-ID} tenant.
+     * A header key also carries a hash of the whole body, so reusing it for a
+     * different request fails with {@link ErrorCode#IDEMPOTENCY_KEY_REUSED}.
+     */
+    public Key key(String workflowId, HttpHeaders headers, Map<String, Object> body) {
+        if (store == null) {
+            return null;
+        }
+        String tenant = Objects.requireNonNullElse(headers.getFirst(TENANT_HEADER), "");
+        if (tenant.length() > MAX_KEY_LENGTH) {
+            throw TENANT_TOO_LONG;
+        }
+        // the length keeps the tenant from running into the rest of the key
+        String scope = workflowId + ":" + tenant.length() + ":" + tenant;
+        String header = headers.getFirst(properties.header());
+        if (header != null && !header.isBlank()) {
+            if (header.length() > MAX_KEY_LENGTH) {
+                throw KEY_TOO_LONG;
+            }
+            return new Key(scope + ":h:" + header, fingerprint(body));
+        }
+        if (properties.keyFields().isEmpty()) {
+            return null;
+        }
+        MessageDigest sha = sha256();
+        boolean any = false;
+        for (String field : properties.keyFields()) {
+            Object value = path(body, field);
+            any |= value != null;
+            sha.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+        }
+        return any ? new Key(scope + ":p:" + HexFormat.of().formatHex(sha.digest()), null) : null;
+    }
+
+    private byte[] fingerprint(Map<String, Object> body) {
+        try {
+            return sha256().digest(canonical.writeValueAsBytes(body));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Blocking form of {@link #executeAsync}; rethrows the execution's own failure. */
+    public Response execute(Key key, Supplier<Map<String, Object>> run) {
+        try {
+            return executeAsync(key, () -> CompletableFuture.completedFuture(run.get())).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    public CompletableFuture<Response> executeAsync(Key key, Supplier<? extends CompletionStage<Map<String, Object>>> run) {
+        long now = System.currentTimeMillis();
+        IdempotencyStore.Entry stored = store.get(key.id(), now);
+        if (stored != null) {
+            return replay(key, stored);
+        }
+        Pending mine = new Pending(key.request(), new CompletableFuture<>());
+        Pending first = inFlight.putIfAbsent(key.id(), mine);
+        if (first != null) {
+            if (!Arrays.equals(first.request(), key.request())) {
+                return CompletableFuture.failedFuture(KEY_REUSED);
+            }
+            joined.increment();
+            return first.body().thenApply(body -> new Response(body, true));
+        }
+        // the first execution may have stored its response and left inFlight between the two lookups
+        stored = store.get(key.id(), now);
+        if (stored != null) {
+            inFlight.remove(key.id(), mine);
+            mine.body().complete(stored.body());
+            return replay(key, stored);
+        }
+        executed.increment();
+        CompletionStage<Map<String, Object>> stage;
+        try {
+            stage = run.get();
+        } catch (RuntimeException ex) {
+            stage = CompletableFuture.failedFuture(ex);
+        }
+        stage.whenComplete((result, ex) -> {
+            if (ex != null) {
+                inFlight.remove(key.id(), mine);
+                mine.body().completeExceptionally(ex);
+                return;
+            }
+            byte[] body;
+            try {
+                body = json.writeValueAsBytes(result);
+            } catch (JsonProcessingException jsonEx) {
+                inFlight.remove(key.id(), mine);
+                mine.body().completeExceptionally(jsonEx);
+                return;
+            }
+            store.put(key.id(), key.request(), body, System.currentTimeMillis() + properties.ttl().toMillis(), now);
+            inFlight.remove(key.id(), mine);
+            mine.body().complete(body);
+        });
+        return mine.body().thenApply(body -> new Response(body, false));
+    }
+
+    private CompletableFuture<Response> replay(Key key, IdempotencyStore.Entry stored) {
+        if (!Arrays.equals(stored.request(), key.request())) {
+            return CompletableFuture.failedFuture(KEY_REUSED);
+        }
+        replayed.increment();
+        return CompletableFuture.completedFuture(new Response(stored.body(), true));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private static Object path(Map<String, Object> body, String dotted) {
+        Object value = body;
+        for (String part : dotted.split("\\.")) {
+            if (!(value instanceof Map<?, ?> map)) {
+                return null;
+            }
+            value = map.get(part);
+        }
+        return value;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
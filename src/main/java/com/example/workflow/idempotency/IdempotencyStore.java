@@ -0,0 +1,117 @@
+package com.example.workflow.idempotency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stored responses by key: a size-bounded LRU map with per-entry expiry,
+ * mirrored to an {@link IdempotencyLog} so it survives restarts. The lock only
+ * guards the map; {@link #put} queues the frame and a single writer thread
+ * appends it and compacts the log from a snapshot, so no request thread (or
+ * event loop) waits for the disk. A frame that does not fit in the queue is
+ * only lost on restart. Entries evicted from memory disappear from the file
+ * at the next compaction.
+ */
+final class IdempotencyStore implements AutoCloseable {
+
+    /** @param request hash of the request that produced {@code body}, or {@code null} if not checked */
+    record Entry(long expiresAt, byte[] request, byte[] body) { }
+
+    private record Write(String key, Entry entry, long now) { }
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final int maxEntries;
+    private final IdempotencyLog log;
+    private final LinkedHashMap<String, Entry> entries;
+    private final BlockingQueue<Write> pending;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    IdempotencyStore(int maxEntries, IdempotencyLog log, long now) throws IOException {
+        this.maxEntries = maxEntries;
+        this.log = log;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyStore.this.maxEntries;
+            }
+        };
+        log.load(entries);
+        entries.values().removeIf(e -> e.expiresAt() <= now);
+        log.compact(entries);
+        this.pending = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.writer = Thread.ofPlatform().name("idempotency-writer").daemon().start(this::drain);
+    }
+
+    synchronized Entry get(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= now) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    void put(String key, byte[] request, byte[] body, long expiresAt, long now) {
+        Entry entry = new Entry(expiresAt, request, body);
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+        if (!pending.offer(new Write(key, entry, now))) {
+            logger.warn("Idempotency log is behind, key {} is kept in memory only", key);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void drain() {
+        while (running || !pending.isEmpty()) {
+            try {
+                Write next = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    continue;
+                }
+                log.append(next.key(), next.entry());
+                if (log.appended() > maxEntries) {
+                    // frames queued after the snapshot are still pending and land after the rewrite
+                    log.compact(live(next.now()));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                logger.warn("Cannot persist idempotency entry", ex);
+            }
+        }
+    }
+
+    private synchronized Map<String, Entry> live(long now) {
+        entries.values().removeIf(e -> e.expiresAt() <= now);
+        return new LinkedHashMap<>(entries);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.workflow.memory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks the values one execution keeps in its globals. Values put through
+ * {@link #put} count against the execution's heap budget, and those that do
+ * not fit move off the heap. A value declared with {@link #releaseAfter} is
+ * removed from the globals and freed once its last reader node has run;
+ * everything else is freed by {@link #close} at the end of the execution.
+ */
+public final class ExecutionMemory implements AutoCloseable {
+
+    private final MemoryGovernor governor;
+    private final Map<String, Object> globals;
+    private final Map<String, Long> heapValues = new HashMap<>();
+    private final Map<String, Set<String>> readers = new HashMap<>();
+    private final List<LargeValue> owned = new ArrayList<>();
+    private long heapBytes;
+
+    ExecutionMemory(MemoryGovernor governor, Map<String, Object> globals) {
+        this.governor = governor;
+        this.globals = globals;
+    }
+
+    /** Plain globals without tracking or budgets, for components run outside an executor. */
+    public static ExecutionMemory unmanaged(Map<String, Object> globals) {
+        return new ExecutionMemory(null, globals);
+    }
+
+    public Map<String, Object> globals() {
+        return globals;
+    }
+
+    /** @param expectedLength length in bytes if known, otherwise -1 */
+    public ValueWriter writer(long expectedLength) {
+        return new ValueWriter(this, governor, expectedLength);
+    }
+
+    /** Whether a value of {@code expectedLength} bytes would stay on the heap; false if unknown. */
+    public boolean fitsHeap(long expectedLength) {
+        return expectedLength >= 0 && admitHeap(expectedLength);
+    }
+
+    /**
+     * Puts {@code value} into the globals. Strings and byte arrays that the heap
+     * budgets cannot take are stored as a {@link LargeValue} instead, which is
+     * what the globals then hold and what is returned.
+     */
+    public synchronized Object put(String key, Object value) {
+        forget(key);
+        if (governor != null) {
+            long bytes = value instanceof byte[] b ? b.length
+                    : value instanceof CharSequence s ? s.length() : -1;
+            if (bytes >= 0 && !admitHeap(bytes)) {
+                value = offHeap(value);
+            } else if (bytes >= 0) {
+                heapValues.put(key, bytes);
+                heapBytes += bytes;
+                governor.add(Tier.HEAP, bytes);
+            }
+        }
+        globals.put(key, value);
+        return value;
+    }
+
+    /** Frees {@code key} once every one of {@code nodes} has run; with no nodes, after the current node. */
+    public synchronized void releaseAfter(String key, String... nodes) {
+        readers.put(key, new HashSet<>(Set.of(nodes)));
+    }
+
+    /** Called by the executor after each node. */
+    public synchronized void afterNode(String node) {
+        for (Iterator<Map.Entry<String, Set<String>>> it = readers.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Set<String>> e = it.next();
+            e.getValue().remove(node);
+            if (e.getValue().isEmpty() && globals.containsKey(e.getKey())) {
+                forget(e.getKey());
+                globals.remove(e.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    /** Heap bytes of the tracked values. */
+    public synchronized long heapBytes() {
+        return heapBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        heapValues.values().forEach(held -> governor.release(Tier.HEAP, held));
+        heapValues.clear();
+        heapBytes = 0;
+        owned.forEach(LargeValue::release);
+        owned.clear();
+        readers.clear();
+    }
+
+    synchronized boolean admitHeap(long bytes) {
+        return governor == null || governor.admitHeap(bytes, heapBytes);
+    }
+
+    synchronized LargeValue own(LargeValue value) {
+        owned.add(value);
+        return value;
+    }
+
+    private void forget(String key) {
+        Long bytes = heapValues.remove(key);
+        if (bytes != null) {
+            heapBytes -= bytes;
+            governor.release(Tier.HEAP, bytes);
+        }
+        if (globals.get(key) instanceof LargeValue large) {
+            large.release();
+            owned.remove(large);
+        }
+    }
+
+    private Object offHeap(Object value) {
+        byte[] bytes = value instanceof byte[] b ? b : value.toString().getBytes(StandardCharsets.UTF_8);
+        ValueWriter writer = writer(bytes.length);
+        try {
+            writer.write(ByteBuffer.wrap(bytes));
+            return writer.finish();
+        } catch (IOException ex) {
+            writer.abort();
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.workflow.memory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A value kept off the heap, either in a direct buffer or in a spill file.
+ * Readers take a {@link #openStream stream} or a read-only {@link #view};
+ * neither copies the value onto the heap. Once released, the direct buffer
+ * is dropped and the file deleted, so readers must not hold on to a view
+ * after their node has run.
+ */
+public final class LargeValue {
+
+    private final MemoryGovernor governor;
+    private final Tier tier;
+    private final long size;
+    private final Path file;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile ByteBuffer buffer;
+
+    private LargeValue(MemoryGovernor governor, Tier tier, long size, ByteBuffer buffer, Path file) {
+        this.governor = governor;
+        this.tier = tier;
+        this.size = size;
+        this.buffer = buffer;
+        this.file = file;
+    }
+
+    static LargeValue offHeap(MemoryGovernor governor, ByteBuffer filled) {
+        return new LargeValue(governor, Tier.OFF_HEAP, filled.remaining(), filled.asReadOnlyBuffer(), null);
+    }
+
+    static LargeValue file(MemoryGovernor governor, Path file, long size) {
+        return new LargeValue(governor, Tier.FILE, size, null, file);
+    }
+
+    public Tier tier() {
+        return tier;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public InputStream openStream() throws IOException {
+        if (tier == Tier.FILE) {
+            return Files.newInputStream(live(file));
+        }
+        ByteBuffer view = view();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return view.hasRemaining() ? view.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!view.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, view.remaining());
+                view.get(b, off, n);
+                return n;
+            }
+        };
+    }
+
+    /** Read-only view: the direct buffer, or the spill file mapped into memory (up to 2 GB). */
+    public ByteBuffer view() throws IOException {
+        if (tier == Tier.OFF_HEAP) {
+            return live(buffer).duplicate();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Value of " + size + " bytes is too large to map, use openStream()");
+        }
+        try (FileChannel channel = FileChannel.open(live(file))) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Drops the buffer or deletes the file. A file's bytes return to the
+     * governor's budget right away, a buffer's once it has been collected.
+     */
+    void release() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+        buffer = null;
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            governor.release(Tier.FILE, size);
+        }
+    }
+
+    private <T> T live(T storage) {
+        if (released.get() || storage == null) {
+            throw new IllegalStateException("Value was released after its last reader");
+        }
+        return storage;
+    }
+
+    @Override
+    public String toString() {
+        return "LargeValue[" + tier + ", " + size + " bytes]";
+    }
+}
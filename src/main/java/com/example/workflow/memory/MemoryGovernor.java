@@ -0,0 +1,132 @@
+package com.example.workflow.memory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide byte budgets for execution values, see {@link MemoryProperties}.
+ * Each execution gets an {@link ExecutionMemory} from {@link #open}.
+ */
+@Service
+@EnableConfigurationProperties(MemoryProperties.class)
+public class MemoryGovernor {
+
+    private final MemoryProperties properties;
+    private final Map<Tier, AtomicLong> bytes = new EnumMap<>(Tier.class);
+    private final Counter spills;
+    private final Path spillDir;
+    private final Cleaner cleaner = Cleaner.create();
+
+    public MemoryGovernor(MemoryProperties properties, MeterRegistry meters) {
+        this.properties = properties;
+        for (Tier tier : Tier.values()) {
+            AtomicLong held = new AtomicLong();
+            bytes.put(tier, held);
+            Gauge.builder("workflow.memory.bytes", held, AtomicLong::get)
+                    .tag("tier", tier.name().toLowerCase(Locale.ROOT))
+                    .baseUnit("bytes")
+                    .register(meters);
+        }
+        this.spills = meters.counter("workflow.memory.spills");
+        try {
+            // spill-dir may be shared by several instances, so each one keeps to its own subdirectory
+            Files.createDirectories(properties.spillDir());
+            this.spillDir = Files.createTempDirectory(properties.spillDir(), "run-");
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot prepare spill directory " + properties.spillDir(), ex);
+        }
+    }
+
+    public ExecutionMemory open(Map<String, Object> globals) {
+        return new ExecutionMemory(this, globals);
+    }
+
+    public long bytes(Tier tier) {
+        return bytes.get(tier).get();
+    }
+
+    boolean admitHeap(long size, long executionHeapBytes) {
+        return size < properties.threshold().toBytes()
+                && executionHeapBytes + size <= properties.executionBudget().toBytes()
+                && bytes(Tier.HEAP) + size <= properties.globalBudget().toBytes();
+    }
+
+    /**
+     * A direct buffer of {@code size} bytes, or null if the off-heap budget has
+     * no room. The bytes count against the budget until the buffer is garbage
+     * collected, since views handed out by a {@link LargeValue} keep its memory
+     * alive after the value itself has been released.
+     */
+    ByteBuffer allocateOffHeap(int size) {
+        if (!reserveOffHeap(size)) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.allocateDirect(size);
+        } catch (OutOfMemoryError ex) {
+            release(Tier.OFF_HEAP, size);
+            return null;
+        }
+        cleaner.register(buffer, () -> release(Tier.OFF_HEAP, size));
+        return buffer;
+    }
+
+    private boolean reserveOffHeap(long size) {
+        long budget = properties.offHeapBudget().toBytes();
+        AtomicLong held = bytes.get(Tier.OFF_HEAP);
+        for (long now = held.get(); now + size <= budget; now = held.get()) {
+            if (held.compareAndSet(now, now + size)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(Tier tier, long size) {
+        bytes.get(tier).addAndGet(size);
+    }
+
+    void release(Tier tier, long size) {
+        bytes.get(tier).addAndGet(-size);
+    }
+
+    void spilled() {
+        spills.increment();
+    }
+
+    Path newSpillFile() throws IOException {
+        return Files.createTempFile(spillDir, "value-", ".bin");
+    }
+
+    Path spillDir() {
+        return spillDir;
+    }
+
+    /** Deletes this instance's spill files, including those of executions still running. */
+    @PreDestroy
+    void close() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(spillDir);
+    }
+}
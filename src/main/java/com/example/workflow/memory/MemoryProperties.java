@@ -0,0 +1,33 @@
+package com.example.workflow.memory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Where large execution values live. A value stays on the heap while it is
+ * below {@code threshold} and both heap budgets have room; otherwise it goes
+ * off-heap while {@code offHeapBudget} has room, and to a file after that.
+ * Each instance spills into its own subdirectory of {@code spillDir} and
+ * deletes it on shutdown.
+ *
+ * @param executionBudget heap bytes of tracked values one execution may hold
+ * @param globalBudget    heap bytes of tracked values across all executions
+ */
+@ConfigurationProperties("workflow.memory")
+public record MemoryProperties(DataSize threshold,
+                               DataSize executionBudget,
+                               DataSize globalBudget,
+                               DataSize offHeapBudget,
+                               Path spillDir) {
+
+    public MemoryProperties {
+        threshold = Objects.requireNonNullElse(threshold, DataSize.ofMegabytes(1));
+        executionBudget = Objects.requireNonNullElse(executionBudget, DataSize.ofMegabytes(16));
+        globalBudget = Objects.requireNonNullElse(globalBudget, DataSize.ofMegabytes(256));
+        offHeapBudget = Objects.requireNonNullElse(offHeapBudget, DataSize.ofMegabytes(256));
+        spillDir = Objects.requireNonNullElse(spillDir, Path.of(System.getProperty("java.io.tmpdir"), "workflow-spill"));
+    }
+}
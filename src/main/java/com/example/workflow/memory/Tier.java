@@ -0,0 +1,7 @@
+package com.example.workflow.memory;
+
+public enum Tier {
+    HEAP,
+    OFF_HEAP,
+    FILE
+}
@@ -0,0 +1,136 @@
+package com.example.workflow.memory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Receives a value chunk by chunk and places it as the governor allows: with
+ * a known length the tier is chosen up front, otherwise the value starts on
+ * the heap. Whenever the current tier runs out of room the bytes so far move
+ * to a spill file, so an unexpectedly large value never has to fit in memory.
+ * Not thread-safe.
+ */
+public final class ValueWriter {
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final ExecutionMemory memory;
+    private final MemoryGovernor governor;
+    private Tier tier;
+    private ByteArrayOutputStream heap;
+    private ByteBuffer direct;
+    private Path path;
+    private FileChannel file;
+    private long size;
+
+    ValueWriter(ExecutionMemory memory, MemoryGovernor governor, long expectedLength) {
+        this.memory = memory;
+        this.governor = governor;
+        if (governor == null || expectedLength < 0 || memory.admitHeap(expectedLength)) {
+            tier = Tier.HEAP;
+            heap = new ByteArrayOutputStream(expectedLength >= 0 ? (int) Math.min(expectedLength, COPY_BUFFER) : 256);
+        } else {
+            direct = expectedLength <= Integer.MAX_VALUE ? governor.allocateOffHeap((int) expectedLength) : null;
+            tier = direct != null ? Tier.OFF_HEAP : Tier.FILE;
+        }
+    }
+
+    public void write(ByteBuffer src) throws IOException {
+        int n = src.remaining();
+        if (tier == Tier.HEAP && governor != null && !memory.admitHeap(size + n)) {
+            spill();
+        } else if (tier == Tier.OFF_HEAP && direct.remaining() < n) {
+            spill();
+        }
+        switch (tier) {
+            case HEAP -> {
+                if (src.hasArray()) {
+                    heap.write(src.array(), src.arrayOffset() + src.position(), n);
+                    src.position(src.limit());
+                } else {
+                    byte[] copy = new byte[n];
+                    src.get(copy);
+                    heap.write(copy, 0, n);
+                }
+            }
+            case OFF_HEAP -> direct.put(src);
+            case FILE -> {
+                FileChannel out = file();
+                while (src.hasRemaining()) {
+                    out.write(src);
+                }
+            }
+        }
+        size += n;
+    }
+
+    /** Copies {@code in} to the end of the value; does not close it. */
+    public void transferFrom(InputStream in) throws IOException {
+        byte[] chunk = new byte[COPY_BUFFER];
+        for (int n; (n = in.read(chunk)) > 0; ) {
+            write(ByteBuffer.wrap(chunk, 0, n));
+        }
+    }
+
+    /**
+     * The finished value: a UTF-8 {@link String} if it stayed on the heap,
+     * a {@link LargeValue} otherwise. Off-heap values are owned by the
+     * execution and released with it at the latest.
+     */
+    public Object finish() throws IOException {
+        return switch (tier) {
+            case HEAP -> heap.toString(StandardCharsets.UTF_8);
+            case OFF_HEAP -> memory.own(LargeValue.offHeap(governor, direct.flip()));
+            case FILE -> {
+                file().force(false);
+                file.close();
+                governor.add(Tier.FILE, size);
+                governor.spilled();
+                yield memory.own(LargeValue.file(governor, path, size));
+            }
+        };
+    }
+
+    /** Drops what has been written so far, e.g. when the source failed. */
+    public void abort() {
+        direct = null;
+        try {
+            if (file != null) {
+                file.close();
+            }
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void spill() throws IOException {
+        FileChannel out = file();
+        if (tier == Tier.HEAP) {
+            out.write(ByteBuffer.wrap(heap.toByteArray()));
+            heap = null;
+        } else {
+            out.write(direct.flip());
+            direct = null;
+        }
+        tier = Tier.FILE;
+    }
+
+    private FileChannel file() throws IOException {
+        if (file == null) {
+            path = governor.newSpillFile();
+            file = FileChannel.open(path, StandardOpenOption.WRITE);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.workflow.parallel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Maps item lists on a fork-join pool of its own, so CPU-heavy transforms
+ * use every core without taking request threads. Each worker maps a
+ * contiguous range of the input into the same range of one preallocated
+ * output array; ranges are split in halves down to a chunk size, which lets
+ * idle workers steal what is left.
+ * <p>
+ * Whether a list is worth splitting is decided from its size and the
+ * measured per-item cost of the transform, kept per {@code key} for at most
+ * {@code maxTransforms} keys. A transform seen for the first time, or one
+ * that no longer fits, has a few items timed on the caller first.
+ * {@link #map} blocks the caller until the whole list is mapped.
+ */
+@Service
+@EnableConfigurationProperties(ParallelProperties.class)
+public class ItemMapper {
+
+    // how long one chunk should keep a worker busy
+    private static final long CHUNK_NANOS = 100_000;
+    // weight of the newest measurement in the per-item cost
+    private static final double COST_WEIGHT = 0.2;
+
+    private final ParallelProperties properties;
+    private final ForkJoinPool pool;
+    private final Map<String, Double> costs = new ConcurrentHashMap<>();
+    private final Counter sequentialItems;
+    private final Counter parallelItems;
+
+    public ItemMapper(ParallelProperties properties, MeterRegistry meters) {
+        this.properties = properties;
+        this.pool = new ForkJoinPool(properties.parallelism(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("workflow-transform-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.sequentialItems = meters.counter("workflow.transform.items", "mode", "sequential");
+        this.parallelItems = meters.counter("workflow.transform.items", "mode", "parallel");
+    }
+
+    /**
+     * {@code fn} applied to every item, in input order. {@code fn} may run on
+     * several threads at once. Exceptions thrown by {@code fn} are rethrown.
+     *
+     * @param key names the transform for its cost statistics
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> List<R> map(String key, List<T> items, Function<? super T, ? extends R> fn) {
+        List<T> source = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        int size = source.size();
+        Object[] out = new Object[size];
+        int from = 0;
+        Double cost = costs.get(key);
+        if (cost == null && size > 0) {
+            from = Math.min(size, properties.probeItems());
+            long start = System.nanoTime();
+            apply(source, fn, out, 0, from);
+            cost = measured(key, System.nanoTime() - start, from);
+            sequentialItems.increment(from);
+        }
+        int rest = size - from;
+        if (rest > 0 && parallel(rest, cost)) {
+            Chunk<T> task = new Chunk<>(source, fn, out, from, size, chunkSize(rest, cost), new LongAdder());
+            try {
+                pool.invoke(task);
+            } catch (RuntimeException ex) {
+                throw original(ex);
+            }
+            measured(key, task.busyNanos.sum(), rest);
+            parallelItems.increment(rest);
+        } else if (rest > 0) {
+            long start = System.nanoTime();
+            apply(source, fn, out, from, size);
+            measured(key, System.nanoTime() - start, rest);
+            sequentialItems.increment(rest);
+        }
+        return Collections.unmodifiableList((List<R>) Arrays.asList(out));
+    }
+
+    private boolean parallel(int items, double cost) {
+        return items >= 2L * properties.minChunk()
+                && items * cost >= properties.sequentialBelow().toNanos();
+    }
+
+    /** Chunks of about {@link #CHUNK_NANOS}, but enough of them for every worker to steal from. */
+    private int chunkSize(int items, double cost) {
+        long byCost = (long) Math.ceil(CHUNK_NANOS / Math.max(cost, 1));
+        long byWorkers = Math.ceilDiv(items, 4L * pool.getParallelism());
+        return (int) Math.max(properties.minChunk(), Math.min(byCost, byWorkers));
+    }
+
+    private double measured(String key, long nanos, int items) {
+        double cost = (double) nanos / items;
+        // callers may pass ad-hoc keys, so the statistics stop growing at the cap
+        if (costs.size() >= properties.maxTransforms() && !costs.containsKey(key)) {
+            return cost;
+        }
+        return costs.merge(key, cost, (old, now) -> old + COST_WEIGHT * (now - old));
+    }
+
+    /** Transforms whose cost is remembered. */
+    int trackedTransforms() {
+        return costs.size();
+    }
+
+    /** The pool rethrows copies made at each join across threads; this is the transform's own exception. */
+    private static RuntimeException original(RuntimeException ex) {
+        RuntimeException original = ex;
+        while (original.getCause() instanceof RuntimeException cause && cause.getClass() == original.getClass()
+                && (original.getMessage() == null || original.getMessage().equals(cause.toString()))) {
+            original = cause;
+        }
+        return original;
+    }
+
+    private static <T> void apply(List<T> source, Function<? super T, ?> fn, Object[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = fn.apply(source.get(i));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static final class Chunk<T> extends RecursiveAction {
+
+        private final List<T> source;
+        private final Function<? super T, ?> fn;
+        private final Object[] out;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final LongAdder busyNanos;
+
+        Chunk(List<T> source, Function<? super T, ?> fn, Object[] out, int from, int to, int chunkSize,
+              LongAdder busyNanos) {
+            this.source = source;
+            this.fn = fn;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.busyNanos = busyNanos;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                long start = System.nanoTime();
+                apply(source, fn, out, from, to);
+                busyNanos.add(System.nanoTime() - start);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk<>(source, fn, out, from, mid, chunkSize, busyNanos),
+                    new Chunk<>(source, fn, out, mid, to, chunkSize, busyNanos));
+        }
+    }
+}
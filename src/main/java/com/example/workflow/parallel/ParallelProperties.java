@@ -0,0 +1,39 @@
+package com.example.workflow.parallel;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Data-parallel item mapping, see {@link ItemMapper}.
+ *
+ * @param parallelism     worker threads of the transform pool, 0 for one per core
+ * @param minChunk        fewest items a worker maps in one go
+ * @param sequentialBelow lists whose estimated mapping time is below this stay on the caller
+ * @param probeItems      items of a not yet measured transform timed on the caller first
+ * @param maxTransforms   transform keys whose cost is remembered; later keys are probed on every call
+ */
+@ConfigurationProperties("workflow.parallel")
+public record ParallelProperties(int parallelism,
+                                 int minChunk,
+                                 Duration sequentialBelow,
+                                 int probeItems,
+                                 int maxTransforms) {
+
+    public ParallelProperties {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (minChunk <= 0) {
+            minChunk = 1024;
+        }
+        sequentialBelow = Objects.requireNonNullElse(sequentialBelow, Duration.ofMillis(1));
+        if (probeItems <= 0) {
+            probeItems = 256;
+        }
+        if (maxTransforms <= 0) {
+            maxTransforms = 1024;
+        }
+    }
+}
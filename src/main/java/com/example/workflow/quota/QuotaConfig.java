@@ -0,0 +1,25 @@
+package com.example.workflow.quota;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class QuotaConfig implements WebMvcConfigurer {
+
+    /** Paths that run a workflow; the concurrency limit covers the same ones. */
+    public static final String[] GUARDED_PATHS = {"/workflows/**", "/executions/*/replay"};
+
+    private final QuotaInterceptor interceptor;
+
+    public QuotaConfig(QuotaInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns(GUARDED_PATHS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.workflow.quota;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Reads and changes the quota limits at runtime. An actuator endpoint
+ * ({@code /actuator/quotas}) rather than part of the workflow API, so it is
+ * exposed and secured with the other management endpoints, on
+ * {@code management.server.port} when that is set. Limits are changed one
+ * at a time under {@code /actuator/quotas/{scope}/{key}}, scope being
+ * {@code workflow}, {@code tenant} or {@code host}.
+ */
+@Component
+@Endpoint(id = "quotas")
+public class QuotaEndpoint {
+
+    private final QuotaService quotas;
+
+    public QuotaEndpoint(QuotaService quotas) {
+        this.quotas = quotas;
+    }
+
+    @ReadOperation
+    public QuotaProperties quotas() {
+        return quotas.properties();
+    }
+
+    @WriteOperation
+    public QuotaProperties setLimit(@Selector String scope, @Selector String key,
+                                    double permitsPerSecond, @Nullable Integer burst) {
+        QuotaProperties.Limit limit;
+        try {
+            limit = new QuotaProperties.Limit(permitsPerSecond, burst == null ? 1 : burst);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+        quotas.setLimit(scope(scope), key, limit);
+        return quotas.properties();
+    }
+
+    @DeleteOperation
+    public QuotaProperties removeLimit(@Selector String scope, @Selector String key) {
+        quotas.setLimit(scope(scope), key, null);
+        return quotas.properties();
+    }
+
+    private static QuotaScope scope(String scope) {
+        try {
+            return QuotaScope.valueOf(scope.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException("Unknown quota scope " + scope, "Unknown quota scope");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.workflow.quota;
+
+import com.example.workflow.HardCodedExecutor;
+import com.example.workflow.error.ErrorCode;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rejects workflow executions over their workflow or tenant quota with a 429
+ * before any request body is read.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class QuotaInterceptor implements HandlerInterceptor {
+
+    static final String TENANT_HEADER = "X-USER-ID";
+
+    private static final byte[] REJECTED = ErrorCode.QUOTA_EXCEEDED.failure().problemJson(null);
+
+    private final QuotaService quotas;
+
+    public QuotaInterceptor(QuotaService quotas) {
+        this.quotas = quotas;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) throws Exception {
+        if (req.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // already counted on the original dispatch
+        }
+        String tenant = req.getHeader(TENANT_HEADER);
+        // tenant first, so a tenant over its quota does not use up the shared workflow quota
+        if ((tenant == null || quotas.tryAcquire(QuotaScope.TENANT, tenant))
+                && quotas.tryAcquire(QuotaScope.WORKFLOW, HardCodedExecutor.WORKFLOW_ID)) {
+            return true;
+        }
+        res.setStatus(ErrorCode.QUOTA_EXCEEDED.status().value());
+        res.setHeader("Retry-After", "1");
+        res.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        res.setContentLength(REJECTED.length);
+        res.getOutputStream().write(REJECTED);
+        return false;
+    }
+}
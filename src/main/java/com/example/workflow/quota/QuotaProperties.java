@@ -0,0 +1,77 @@
+package com.example.workflow.quota;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Quota limits per workflow id, tenant ({@code X-USER-ID}) and outbound host.
+ * An entry named {@code default} applies to every key without its own entry;
+ * keys without any entry are unlimited.
+ *
+ * @param maxWait         longest wait for an outbound permit
+ * @param platformMaxWait the same for callers blocking a platform thread, which
+ *                        must not be tied up for long; virtual threads wait {@code maxWait}
+ * @param maxBuckets      buckets kept per scope; tenant ids come from a request
+ *                        header, so idle buckets are dropped beyond this and
+ *                        further keys share one bucket
+ */
+@ConfigurationProperties("workflow.quota")
+public record QuotaProperties(Map<String, Limit> workflows,
+                              Map<String, Limit> tenants,
+                              Map<String, Limit> hosts,
+                              Duration maxWait,
+                              Duration platformMaxWait,
+                              int maxBuckets) {
+
+    public static final String DEFAULT_KEY = "default";
+
+    public QuotaProperties {
+        workflows = Objects.requireNonNullElse(workflows, Map.of());
+        tenants = Objects.requireNonNullElse(tenants, Map.of());
+        hosts = Objects.requireNonNullElse(hosts, Map.of());
+        maxWait = Objects.requireNonNullElse(maxWait, Duration.ofSeconds(30));
+        platformMaxWait = Objects.requireNonNullElse(platformMaxWait, Duration.ofMillis(100));
+        maxBuckets = maxBuckets > 0 ? maxBuckets : 10_000;
+    }
+
+    public Map<String, Limit> limits(QuotaScope scope) {
+        return switch (scope) {
+            case WORKFLOW -> workflows;
+            case TENANT -> tenants;
+            case HOST -> hosts;
+        };
+    }
+
+    public Limit limitFor(QuotaScope scope, String key) {
+        Map<String, Limit> limits = limits(scope);
+        Limit limit = limits.get(key);
+        return limit != null ? limit : limits.get(DEFAULT_KEY);
+    }
+
+    /** A copy with {@code key}'s limit in {@code scope} replaced, or removed if {@code limit} is null. */
+    public QuotaProperties withLimit(QuotaScope scope, String key, Limit limit) {
+        Map<String, Limit> changed = new LinkedHashMap<>(limits(scope));
+        if (limit == null) {
+            changed.remove(key);
+        } else {
+            changed.put(key, limit);
+        }
+        return new QuotaProperties(
+                scope == QuotaScope.WORKFLOW ? changed : workflows,
+                scope == QuotaScope.TENANT ? changed : tenants,
+                scope == QuotaScope.HOST ? changed : hosts,
+                maxWait, platformMaxWait, maxBuckets);
+    }
+
+    public record Limit(double permitsPerSecond, int burst) {
+        public Limit {
+            if (permitsPerSecond <= 0) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+            }
+        }
+    }
+}
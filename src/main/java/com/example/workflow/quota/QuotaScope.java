@@ -0,0 +1,3 @@
+package com.example.workflow.quota;
+
+public enum QuotaScope { WORKFLOW, TENANT, HOST }
@@ -0,0 +1,198 @@
+package com.example.workflow.quota;
+
+import com.example.workflow.error.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by {@link QuotaScope} and key. Inbound callers use
+ * {@link #tryAcquire} and are rejected straight away; outbound callers use
+ * {@link #acquire} and are delayed until their permit is due. Beyond
+ * {@code maxBuckets} keys in a scope, buckets that have refilled completely
+ * are dropped (a new one starts full too, so nothing is lost). Keys under the
+ * default limit that still find no room share one overflow bucket, so callers
+ * rotating through keys can neither reset other keys' buckets nor escape the
+ * limit.
+ */
+@Service
+@EnableConfigurationProperties(QuotaProperties.class)
+public class QuotaService {
+
+    private static final long EVICTION_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MeterRegistry meters;
+    private final Map<QuotaScope, Map<String, TokenBucket>> buckets = new EnumMap<>(QuotaScope.class);
+    private final Map<QuotaScope, TokenBucket> overflow = new ConcurrentHashMap<>();
+    private final Map<QuotaScope, AtomicLong> nextEviction = new EnumMap<>(QuotaScope.class);
+    private final Map<QuotaScope, Map<String, Gauge>> limitGauges = new EnumMap<>(QuotaScope.class);
+    private volatile QuotaProperties properties;
+
+    public QuotaService(QuotaProperties properties, MeterRegistry meters) {
+        this.meters = meters;
+        for (QuotaScope scope : QuotaScope.values()) {
+            buckets.put(scope, new ConcurrentHashMap<>());
+            nextEviction.put(scope, new AtomicLong(System.nanoTime()));
+            limitGauges.put(scope, new HashMap<>());
+            Gauge.builder("workflow.quota.buckets", this, s -> s.bucketCount(scope))
+                    .tag("scope", tagValue(scope))
+                    .register(meters);
+        }
+        reload(properties);
+    }
+
+    public QuotaProperties properties() {
+        return properties;
+    }
+
+    /**
+     * Replaces all limits. Buckets whose limit changed keep their schedule
+     * under the new limit, those that lost their limit are dropped, and all
+     * others are left alone.
+     */
+    public synchronized void reload(QuotaProperties properties) {
+        QuotaProperties previous = this.properties;
+        this.properties = properties;
+        overflow.clear();
+        for (QuotaScope scope : QuotaScope.values()) {
+            if (previous != null) {
+                for (Map.Entry<String, TokenBucket> e : buckets.get(scope).entrySet()) {
+                    QuotaProperties.Limit limit = properties.limitFor(scope, e.getKey());
+                    if (limit == null) {
+                        buckets.get(scope).remove(e.getKey());
+                    } else if (!limit.equals(previous.limitFor(scope, e.getKey()))) {
+                        e.setValue(e.getValue().withLimit(limit));
+                    }
+                }
+            }
+            registerLimitGauges(scope, properties.limits(scope).keySet());
+        }
+    }
+
+    /** Replaces one limit, or removes it if {@code limit} is null. */
+    public synchronized void setLimit(QuotaScope scope, String key, QuotaProperties.Limit limit) {
+        reload(properties.withLimit(scope, key, limit));
+    }
+
+    public boolean tryAcquire(QuotaScope scope, String key) {
+        TokenBucket bucket = bucket(scope, key);
+        boolean granted = bucket == null || bucket.tryAcquire();
+        count(scope, key, granted ? "granted" : "rejected");
+        return granted;
+    }
+
+    /** {@link #acquire(QuotaScope, String, Duration)} with {@code maxWait}. */
+    public CompletableFuture<Void> acquire(QuotaScope scope, String key) {
+        return acquire(scope, key, properties.maxWait());
+    }
+
+    /**
+     * Completes once a permit is available, or is already failed with
+     * {@link ErrorCode#QUOTA_EXCEEDED} if the wait would exceed {@code maxWait}.
+     */
+    public CompletableFuture<Void> acquire(QuotaScope scope, String key, Duration maxWait) {
+        TokenBucket bucket = bucket(scope, key);
+        if (bucket == null) {
+            count(scope, key, "granted");
+            return CompletableFuture.completedFuture(null);
+        }
+        long wait = bucket.reserve(maxWait.toNanos());
+        if (wait < 0) {
+            count(scope, key, "rejected");
+            return CompletableFuture.failedFuture(ErrorCode.QUOTA_EXCEEDED.failure());
+        }
+        if (wait == 0) {
+            count(scope, key, "granted");
+            return CompletableFuture.completedFuture(null);
+        }
+        count(scope, key, "delayed");
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+    }
+
+    private TokenBucket bucket(QuotaScope scope, String key) {
+        QuotaProperties properties = this.properties;
+        QuotaProperties.Limit limit = properties.limitFor(scope, key);
+        if (limit == null) {
+            return null;
+        }
+        Map<String, TokenBucket> scoped = buckets.get(scope);
+        TokenBucket bucket = scoped.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // keys with a limit of their own are configured, so there are few of them
+        if (scoped.size() >= properties.maxBuckets() && !properties.limits(scope).containsKey(key)) {
+            evictFull(scope, scoped);
+            if (scoped.size() >= properties.maxBuckets()) {
+                return overflow.computeIfAbsent(scope, s -> new TokenBucket(limit));
+            }
+        }
+        return scoped.computeIfAbsent(key, k -> new TokenBucket(limit));
+    }
+
+    /** Drops buckets that have refilled completely; scans at most every {@link #EVICTION_INTERVAL}. */
+    private void evictFull(QuotaScope scope, Map<String, TokenBucket> scoped) {
+        long now = System.nanoTime();
+        AtomicLong next = nextEviction.get(scope);
+        long due = next.get();
+        if (now - due >= 0 && next.compareAndSet(due, now + EVICTION_INTERVAL)) {
+            scoped.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private void registerLimitGauges(QuotaScope scope, Set<String> keys) {
+        Map<String, Gauge> gauges = limitGauges.get(scope);
+        for (Iterator<Map.Entry<String, Gauge>> it = gauges.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Gauge> e = it.next();
+            if (!keys.contains(e.getKey())) {
+                meters.remove(e.getValue());
+                it.remove();
+            }
+        }
+        for (String key : keys) {
+            gauges.computeIfAbsent(key, k -> Gauge.builder("workflow.quota.limit", this, s -> s.rate(scope, k))
+                    .tag("scope", tagValue(scope))
+                    .tag("key", k)
+                    .baseUnit("permits/s")
+                    .register(meters));
+        }
+    }
+
+    int bucketCount(QuotaScope scope) {
+        return buckets.get(scope).size();
+    }
+
+    private double rate(QuotaScope scope, String key) {
+        QuotaProperties.Limit limit = properties.limits(scope).get(key);
+        return limit == null ? Double.NaN : limit.permitsPerSecond();
+    }
+
+    private void count(QuotaScope scope, String key, String outcome) {
+        // tenant ids are unbounded, so they are not used as a tag
+        Counter.builder("workflow.quota.requests")
+                .tag("scope", tagValue(scope))
+                .tag("key", scope == QuotaScope.TENANT ? "*" : key)
+                .tag("outcome", outcome)
+                .register(meters)
+                .increment();
+    }
+
+    private static String tagValue(QuotaScope scope) {
+        return scope.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.workflow.quota;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, stored as a single "theoretical arrival time"
+ * (the GCRA form): a permit is free when that time is at most
+ * {@code burst} emission intervals ahead of now.
+ */
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong tat;
+
+    TokenBucket(QuotaProperties.Limit limit) {
+        this(limit, System.nanoTime());
+    }
+
+    private TokenBucket(QuotaProperties.Limit limit, long tat) {
+        this.intervalNanos = (long) (1_000_000_000L / limit.permitsPerSecond());
+        this.toleranceNanos = intervalNanos * Math.max(limit.burst(), 1);
+        this.tat = new AtomicLong(tat);
+    }
+
+    /** A bucket with {@code limit} that keeps this one's schedule, so a limit change grants no fresh burst. */
+    TokenBucket withLimit(QuotaProperties.Limit limit) {
+        return new TokenBucket(limit, tat.get());
+    }
+
+    /** Whether the bucket has refilled completely, i.e. dropping it loses nothing. */
+    boolean isFull(long now) {
+        return tat.get() - now <= 0;
+    }
+
+    /** Takes a permit if one is free right now. */
+    boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    /**
+     * Reserves the next permit and returns how long the caller has to wait
+     * for it in nanos, or -1 without reserving if that exceeds {@code maxWaitNanos}.
+     */
+    long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - toleranceNanos - now;
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return Math.max(wait, 0);
+            }
+        }
+    }
+}
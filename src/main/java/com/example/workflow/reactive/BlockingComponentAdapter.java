@@ -0,0 +1,44 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.ComponentContext;
+import com.example.workflow.ComponentResult;
+import com.example.workflow.WorkflowComponent;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Runs an existing {@link WorkflowComponent} from a reactive flow. Components
+ * that may block are moved to the bounded blocking scheduler; components that
+ * only compute can run inline on the calling thread.
+ */
+public final class BlockingComponentAdapter implements ReactiveWorkflowComponent {
+
+    private final WorkflowComponent delegate;
+    private final Scheduler scheduler;
+
+    private BlockingComponentAdapter(WorkflowComponent delegate, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+
+    /** For components that may block, e.g. on I/O. */
+    public static ReactiveWorkflowComponent offloaded(WorkflowComponent delegate, Scheduler scheduler) {
+        return new BlockingComponentAdapter(delegate, scheduler);
+    }
+
+    /** For components that never block; skips the thread hop. */
+    public static ReactiveWorkflowComponent inline(WorkflowComponent delegate) {
+        return new BlockingComponentAdapter(delegate, null);
+    }
+
+    @Override
+    public Mono<ComponentResult> execute(ComponentContext ctx) {
+        Mono<ComponentResult> call = Mono.fromCallable(() -> delegate.execute(ctx));
+        return scheduler == null ? call : call.subscribeOn(scheduler);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.getClass().getSimpleName();
+    }
+}
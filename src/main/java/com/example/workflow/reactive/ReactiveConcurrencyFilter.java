@@ -0,0 +1,56 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.HardCodedExecutor;
+import com.example.workflow.concurrency.ConcurrencyLimiters;
+import com.example.workflow.concurrency.LimitScope;
+import com.example.workflow.concurrency.Permit;
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/** WebFlux twin of {@link com.example.workflow.concurrency.ConcurrencyLimitInterceptor}. */
+@Component
+@Order(1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConcurrencyFilter implements WebFilter {
+
+    private static final byte[] REJECTED = ErrorCode.OVERLOADED.failure().problemJson(null);
+
+    private final ConcurrencyLimiters limiters;
+
+    public ReactiveConcurrencyFilter(ConcurrencyLimiters limiters) {
+        this.limiters = limiters;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!ReactiveQuotaFilter.runsWorkflow(exchange)) {
+            return chain.filter(exchange);
+        }
+        return Mono.fromFuture(() -> limiters.acquire(LimitScope.WORKFLOW, HardCodedExecutor.WORKFLOW_ID))
+                .onErrorResume(WorkflowFailure.class, f -> reject(exchange.getResponse()).then(Mono.<Permit>empty()))
+                .flatMap(permit -> chain.filter(exchange)
+                        .doOnSuccess(v -> {
+                            HttpStatusCode status = exchange.getResponse().getStatusCode();
+                            permit.release(status == null ? 200 : status.value());
+                        })
+                        .doOnError(ex -> permit.dropped())
+                        .doFinally(signal -> permit.ignore()));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse res) {
+        res.setStatusCode(ErrorCode.OVERLOADED.status());
+        res.getHeaders().set("Retry-After", "1");
+        res.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        return res.writeWith(Mono.just(res.bufferFactory().wrap(REJECTED)));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.workflow.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorResourceFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Beans of the reactive engine. Active only when the application runs as a
+ * reactive web application ({@code spring.main.web-application-type=reactive}).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ReactiveProperties.class)
+public class ReactiveEngineConfig {
+
+    @Bean
+    ReactorResourceFactory reactorResourceFactory(ReactiveProperties properties) {
+        ReactorResourceFactory factory = new ReactorResourceFactory();
+        factory.setUseGlobalResources(false);
+        factory.setLoopResources(LoopResources.create("workflow-io", properties.eventLoopThreads(), true));
+        return factory;
+    }
+
+    /** Netty rather than Tomcat, which Boot would prefer while the servlet starter is on the classpath. */
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ReactorResourceFactory resources) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        factory.setResourceFactory(resources);
+        return factory;
+    }
+
+    /** For {@link BlockingComponentAdapter#offloaded}, e.g. {@code MergeNode} which waits on its batches. */
+    @Bean(destroyMethod = "dispose")
+    Scheduler blockingComponentScheduler(ReactiveProperties properties) {
+        return Schedulers.newBoundedElastic(properties.blockingThreads(), properties.blockingQueue(),
+                "workflow-blocking");
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebInputException;
+
+/** WebFlux twin of {@link com.example.workflow.GlobalExceptionHandler}. */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+    private static final WorkflowFailure UNREADABLE_BODY =
+            WorkflowFailure.of(ErrorCode.VALIDATION_FAILED, "Request body is not valid JSON");
+
+    @ExceptionHandler(WorkflowFailure.class)
+    public ResponseEntity<byte[]> handle(WorkflowFailure failure) {
+        return problem(failure, null);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<byte[]> handle(ServerWebInputException ex) {
+        return problem(UNREADABLE_BODY, null);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<?> handle(Exception ex, ServerHttpRequest req) {
+        if (ex instanceof ErrorResponse framework) {
+            // framework errors that carry their own status, e.g. 404s and invalid actuator requests
+            return ResponseEntity.status(framework.getStatusCode())
+                    .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                    .body(framework.getBody());
+        }
+        // the message may carry internals, so the caller only gets the code's title
+        log.error("Unhandled failure on {}", req.getPath().value(), ex);
+        return problem(ErrorCode.INTERNAL.failure(), req.getPath().value());
+    }
+
+    private static ResponseEntity<byte[]> problem(WorkflowFailure failure, String instance) {
+        return ResponseEntity.status(failure.code().status())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(failure.problemJson(instance));
+    }
+}
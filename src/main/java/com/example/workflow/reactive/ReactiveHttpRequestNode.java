@@ -0,0 +1,121 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.ComponentContext;
+import com.example.workflow.ComponentResult;
+import com.example.workflow.HttpRequestNode;
+import com.example.workflow.concurrency.ConcurrencyLimiters;
+import com.example.workflow.concurrency.LimitScope;
+import com.example.workflow.concurrency.Permit;
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.example.workflow.memory.ExecutionMemory;
+import com.example.workflow.memory.ValueWriter;
+import com.example.workflow.quota.QuotaScope;
+import com.example.workflow.quota.QuotaService;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+/**
+ * Non-blocking {@link HttpRequestNode}: the host quota
+ * wait and the call itself hold no thread. The body is streamed into the
+ * execution's memory; only a body that may leave the heap is written on the
+ * blocking scheduler, since it can end up in a spill file.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveHttpRequestNode implements ReactiveWorkflowComponent {
+
+    private final WebClient web;
+    private final WebClient syntheticWeb;
+    private final QuotaService quotas;
+    private final ConcurrencyLimiters limiters;
+    private final Scheduler blocking;
+
+    public ReactiveHttpRequestNode(WebClient.Builder webBuilder, QuotaService quotas, ConcurrencyLimiters limiters,
+                                   Scheduler blockingComponentScheduler) {
+        // the builder carries the tracing filters (traceparent and X-Trace-Id headers)
+        this.web = webBuilder.build();
+        // same client without http.client.requests timers and spans
+        this.syntheticWeb = webBuilder.clone().observationRegistry(ObservationRegistry.NOOP).build();
+        this.quotas = quotas;
+        this.limiters = limiters;
+        this.blocking = blockingComponentScheduler;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public Mono<ComponentResult> execute(ComponentContext ctx) {
+        String url = (String) ctx.inputs().get("url");
+        String host = URI.create(url).getHost();
+        boolean synthetic = Boolean.TRUE.equals(ctx.inputs().get(HttpRequestNode.SYNTHETIC));
+        WebClient web = synthetic ? syntheticWeb : this.web;
+        Mono<Permit> admitted = synthetic
+                ? Mono.just(Permit.UNLIMITED)
+                : Mono.fromFuture(() -> quotas.acquire(QuotaScope.HOST, host))
+                        .then(Mono.fromFuture(() -> limiters.acquire(LimitScope.HOST, host)));
+        return admitted
+                .flatMap(permit -> web.get().uri(url).exchangeToMono(resp -> {
+                            if (resp.statusCode().isError()) {
+                                return resp.releaseBody().then(Mono.fromSupplier(() -> {
+                                    permit.release(resp.statusCode().value());
+                                    return ComponentResult.failed(WorkflowFailure.of(ErrorCode.UPSTREAM_FAILED,
+                                            url + " answered " + resp.statusCode().value()));
+                                }));
+                            }
+                            return read(resp, ctx.memory()).map(body -> {
+                                permit.release(resp.statusCode().value());
+                                return ComponentResult.ok(ctx.memory().put("http_response", body));
+                            });
+                        })
+                        .doOnError(ex -> permit.dropped())
+                        .doFinally(signal -> permit.ignore()))
+                .onErrorResume(WorkflowFailure.class, f -> Mono.just(ComponentResult.failed(f)))
+                .onErrorResume(ex -> Mono.just(ComponentResult.failed(
+                        WorkflowFailure.of(ErrorCode.UPSTREAM_FAILED, ex.getMessage()))));
+    }
+
+    private Mono<Object> read(ClientResponse resp, ExecutionMemory memory) {
+        return Mono.defer(() -> {
+            long length = resp.headers().contentLength().orElse(-1);
+            ValueWriter writer = memory.writer(length);
+            Flux<DataBuffer> body = resp.bodyToFlux(DataBuffer.class);
+            if (!memory.fitsHeap(length)) {
+                body = body.publishOn(blocking);
+            }
+            return body.doOnNext(buf -> write(writer, buf))
+                    .then(Mono.fromCallable(writer::finish))
+                    .doOnError(ex -> writer.abort())
+                    .doOnCancel(writer::abort);
+        });
+    }
+
+    private static void write(ValueWriter writer, DataBuffer buf) {
+        try (DataBuffer.ByteBufferIterator it = buf.readableByteBuffers()) {
+            while (it.hasNext()) {
+                ByteBuffer chunk = it.next();
+                writer.write(chunk);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            DataBufferUtils.release(buf);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.workflow.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Thread budget of the reactive engine: a fixed event-loop pool shared by the
+ * server and WebClient, and a bounded pool for adapted blocking components.
+ */
+@ConfigurationProperties("workflow.reactive")
+public record ReactiveProperties(int eventLoopThreads,
+                                 int blockingThreads,
+                                 int blockingQueue) {
+
+    public ReactiveProperties {
+        int cores = Runtime.getRuntime().availableProcessors();
+        eventLoopThreads = eventLoopThreads > 0 ? eventLoopThreads : cores;
+        blockingThreads = blockingThreads > 0 ? blockingThreads : 10 * cores;
+        blockingQueue = blockingQueue > 0 ? blockingQueue : 100_000;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.HardCodedExecutor;
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.quota.QuotaScope;
+import com.example.workflow.quota.QuotaService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/** WebFlux twin of {@link com.example.workflow.quota.QuotaInterceptor}. */
+@Component
+@Order(0)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveQuotaFilter implements WebFilter {
+
+    private static final byte[] REJECTED = ErrorCode.QUOTA_EXCEEDED.failure().problemJson(null);
+
+    private final QuotaService quotas;
+
+    public ReactiveQuotaFilter(QuotaService quotas) {
+        this.quotas = quotas;
+    }
+
+    /** The paths of {@link com.example.workflow.quota.QuotaConfig#GUARDED_PATHS}. */
+    static boolean runsWorkflow(ServerWebExchange exchange) {
+        String path = exchange.getRequest().getPath().value();
+        return path.startsWith("/workflows/") || (path.startsWith("/executions/") && path.endsWith("/replay"));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!runsWorkflow(exchange)) {
+            return chain.filter(exchange);
+        }
+        String tenant = exchange.getRequest().getHeaders().getFirst("X-USER-ID");
+        // tenant first, so a tenant over its quota does not use up the shared workflow quota
+        if ((tenant == null || quotas.tryAcquire(QuotaScope.TENANT, tenant))
+                && quotas.tryAcquire(QuotaScope.WORKFLOW, HardCodedExecutor.WORKFLOW_ID)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse res = exchange.getResponse();
+        res.setStatusCode(ErrorCode.QUOTA_EXCEEDED.status());
+        res.getHeaders().set("Retry-After", "1");
+        res.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        return res.writeWith(Mono.just(res.bufferFactory().wrap(REJECTED)));
+    }
+}
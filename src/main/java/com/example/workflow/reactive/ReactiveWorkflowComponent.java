@@ -0,0 +1,10 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.ComponentContext;
+import com.example.workflow.ComponentResult;
+import reactor.core.publisher.Mono;
+
+/** Non-blocking counterpart of {@link com.example.workflow.WorkflowComponent}. */
+public interface ReactiveWorkflowComponent {
+    Mono<ComponentResult> execute(ComponentContext ctx);
+}
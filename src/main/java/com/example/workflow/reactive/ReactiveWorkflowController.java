@@ -0,0 +1,45 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.HardCodedExecutor;
+import com.example.workflow.idempotency.IdempotencyService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * WebFlux entry point with the same paths as {@link com.example.workflow.WorkflowController};
+ * both paths are non-blocking here.
+ */
+@RestController
+@RequestMapping("/workflows")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWorkflowController {
+
+    private final ReactiveWorkflowExecutor executor;
+    private final IdempotencyService idempotency;
+
+    public ReactiveWorkflowController(ReactiveWorkflowExecutor executor, IdempotencyService idempotency) {
+        this.executor = executor;
+        this.idempotency = idempotency;
+    }
+
+    @PostMapping({"/execute", "/execute-async"})
+    public Mono<ResponseEntity<?>> execute(@RequestHeader HttpHeaders headers, @RequestBody Map<String, Object> body) {
+        IdempotencyService.Key key = idempotency.key(HardCodedExecutor.WORKFLOW_ID, headers, body);
+        if (key == null) {
+            return executor.execute(body).map(ResponseEntity::ok);
+        }
+        // the execution is subscribed through a future, so hand it the request's context (trace parent)
+        return Mono.deferContextual(ctx -> Mono.fromFuture(() -> idempotency.executeAsync(key,
+                        () -> executor.execute(body).contextWrite(ctx).toFuture())))
+                .map(IdempotencyService.Response::toEntity);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.workflow.reactive;
+
+import com.example.workflow.ComponentContext;
+import com.example.workflow.ComponentRegistry;
+import com.example.workflow.ComponentResult;
+import com.example.workflow.HardCodedExecutor;
+import com.example.workflow.HttpRequestNode;
+import com.example.workflow.Status;
+import com.example.workflow.WarmableWorkflow;
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.example.workflow.history.ExecutionHistory;
+import com.example.workflow.history.ExecutionRecord;
+import com.example.workflow.history.ExecutionRecord.NodeRecord;
+import com.example.workflow.memory.ExecutionMemory;
+import com.example.workflow.memory.MemoryGovernor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link HardCodedExecutor} flow as one non-blocking chain. The compute
+ * nodes run inline, the HTTP node is {@link ReactiveHttpRequestNode}; nodes
+ * still run one after another, so the per-run state needs no locking.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWorkflowExecutor implements WarmableWorkflow {
+
+    private static final WorkflowFailure MISSING_QUERY =
+            WorkflowFailure.of(ErrorCode.VALIDATION_FAILED, "query object is required");
+
+    private final ReactiveWorkflowComponent webhook;
+    private final ReactiveWorkflowComponent ifNode;
+    private final ReactiveWorkflowComponent nextStep;
+    private final ReactiveWorkflowComponent httpRequest;
+    private final ReactiveWorkflowComponent respond;
+    private final ObservationRegistry observations;
+    private final ExecutionHistory history;
+    private final MemoryGovernor governor;
+    private final String validateUrl;
+
+    public ReactiveWorkflowExecutor(ComponentRegistry components,
+                                    ReactiveHttpRequestNode httpRequest,
+                                    ObservationRegistry observations,
+                                    ExecutionHistory history,
+                                    MemoryGovernor governor,
+                                    @Value("${workflow.validate-url}") String validateUrl) {
+        this.webhook = BlockingComponentAdapter.inline(components.get("webhookNode"));
+        this.ifNode = BlockingComponentAdapter.inline(components.get("ifNode"));
+        this.nextStep = BlockingComponentAdapter.inline(components.get("setNode"));
+        this.httpRequest = httpRequest;
+        this.respond = BlockingComponentAdapter.inline(components.get("respondToWebhookNode"));
+        this.observations = observations;
+        this.history = history;
+        this.governor = governor;
+        this.validateUrl = validateUrl;
+    }
+
+    public Mono<Map<String, Object>> execute(Map<String, Object> requestBody) {
+        return execute(requestBody, validateUrl, false);
+    }
+
+    @Override
+    public String workflowId() {
+        return HardCodedExecutor.WORKFLOW_ID;
+    }
+
+    @Override
+    public List<Map<String, Object>> samplePayloads() {
+        return HardCodedExecutor.SAMPLE_PAYLOADS;
+    }
+
+    /**
+     * Blocks until the run completes. Warm-up calls it from the application
+     * runner before traffic is accepted; an event loop (or any other
+     * non-blocking thread) is refused instead of parked.
+     */
+    @Override
+    public void runSynthetic(Map<String, Object> body, String downstreamUrl) {
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("Synthetic runs block and cannot run on " + Thread.currentThread().getName());
+        }
+        execute(body, downstreamUrl, true).block();
+    }
+
+    private Mono<Map<String, Object>> execute(Map<String, Object> requestBody, String url, boolean synthetic) {
+        return Mono.deferContextual(reactorCtx -> {
+            long startedAt = System.currentTimeMillis();
+            long start = System.nanoTime();
+            List<NodeRecord> nodes = new ArrayList<>();
+            // synthetic runs create no spans or timers, so warm-up does not show up in production telemetry
+            Observation run = Observation.createNotStarted("workflow.run",
+                            synthetic ? ObservationRegistry.NOOP : observations)
+                    .parentObservation(reactorCtx.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+                    .lowCardinalityKeyValue("workflow.id", HardCodedExecutor.WORKFLOW_ID)
+                    .start();
+            String[] error = new String[1];
+            return Mono.using(() -> governor.open(new HashMap<>()), memory -> {
+                        // nothing downstream reads the HTTP body: free it as soon as its node has run
+                        memory.releaseAfter("http_response");
+                        return run(requestBody, url, synthetic, nodes, run, memory);
+                    }, ExecutionMemory::close)
+                    .doOnError(ex -> {
+                        run.error(ex);
+                        error[0] = String.valueOf(ex.getMessage());
+                    })
+                    .doFinally(signal -> {
+                        run.stop();
+                        if (synthetic) {
+                            return;
+                        }
+                        String err = error[0];
+                        for (int i = 0; err == null && i < nodes.size(); i++) {
+                            err = nodes.get(i).error();
+                        }
+                        history.record(new ExecutionRecord(0, HardCodedExecutor.WORKFLOW_ID,
+                                err == null ? Status.SUCCESS : Status.ERROR,
+                                startedAt, System.nanoTime() - start, requestBody, nodes, err));
+                    });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<Map<String, Object>> run(Map<String, Object> requestBody, String url, boolean synthetic,
+                                          List<NodeRecord> nodes, Observation run, ExecutionMemory memory) {
+        return step("Webhook", webhook, nodes, run, Map.of("payload", requestBody), memory)
+                .then(Mono.defer(() -> {
+                    if (!(requestBody.get("query") instanceof Map<?, ?> query)) {
+                        return Mono.error(MISSING_QUERY);
+                    }
+                    return step("IF", ifNode, nodes, run,
+                            Map.of("value1", query.get("email"), "value2", "hmchiud@tsmc.com"), memory)
+                            .flatMap(ifRes -> (boolean) ((Map<?, ?>) ifRes.data()).get("condition")
+                                    // Success branch
+                                    ? step("Next Step", nextStep, nodes, run, Map.of("message", "Validation passed"), memory)
+                                            .then(step("HTTP Request", httpRequest, nodes, run,
+                                                    Map.of("url", url, HttpRequestNode.SYNTHETIC, synthetic), memory))
+                                            .flatMap(httpRes -> httpRes.status() == Status.ERROR
+                                                    // the node's n8n "error" output
+                                                    ? Mono.error(httpRes.failure())
+                                                    : step("Respond 200", respond, nodes, run,
+                                                            Map.of("responseCode", 200, "body", Map.of("email", query.get("email"))), memory))
+                                    // Failure branch
+                                    : step("Respond 400", respond, nodes, run,
+                                            Map.of("responseCode", 400,
+                                                   "body", Map.of("error", "Bad request – invalid email")), memory));
+                }))
+                .map(res -> (Map<String, Object>) res.data());
+    }
+
+    /** One node inside its own observation, added to {@code nodes} when it completes. */
+    private Mono<ComponentResult> step(String node, ReactiveWorkflowComponent component, List<NodeRecord> nodes,
+                                       Observation run, Map<String, Object> inputs, ExecutionMemory memory) {
+        return Mono.defer(() -> {
+            String name = component.toString();
+            long start = System.nanoTime();
+            Observation obs = Observation.createNotStarted("workflow.node",
+                            run.isNoop() ? ObservationRegistry.NOOP : observations)
+                    .parentObservation(run)
+                    .lowCardinalityKeyValue("node", node)
+                    .lowCardinalityKeyValue("component", name)
+                    .start();
+            return component.execute(new ComponentContext(inputs, memory.globals(), memory))
+                    .doOnNext(res -> {
+                        nodes.add(new NodeRecord(node, name, res.status(), System.nanoTime() - start,
+                                res.data(), res.error()));
+                        obs.lowCardinalityKeyValue("status", res.status().name());
+                        obs.highCardinalityKeyValue("payload.size", String.valueOf(res.payloadSize()));
+                    })
+                    .doOnError(ex -> {
+                        nodes.add(new NodeRecord(node, name, Status.ERROR, System.nanoTime() - start,
+                                null, String.valueOf(ex.getMessage())));
+                        obs.error(ex);
+                    })
+                    .doFinally(signal -> {
+                        memory.afterNode(node);
+                        obs.stop();
+                    })
+                    // parent for the WebClient observation of outbound calls
+                    .contextWrite(c -> c.put(ObservationThreadLocalAccessor.KEY, obs));
+        });
+    }
+}
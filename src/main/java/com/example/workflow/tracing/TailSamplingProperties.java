@@ -0,0 +1,29 @@
+package com.example.workflow.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Tail sampling on top of the head sampling set by
+ * {@code management.tracing.sampling.probability}: of the traces that were
+ * head-sampled, only slow ones, failed ones and a {@code keepRatio} share of
+ * the rest are exported.
+ *
+ * @param maxPendingAge how long spans of a trace wait for its local root span;
+ *                      older ones are exported unsampled
+ */
+@ConfigurationProperties("workflow.tracing.tail-sampling")
+public record TailSamplingProperties(boolean enabled,
+                                     Duration latencyThreshold,
+                                     double keepRatio,
+                                     int maxPendingTraces,
+                                     Duration maxPendingAge) {
+
+    public TailSamplingProperties {
+        latencyThreshold = Objects.requireNonNullElse(latencyThreshold, Duration.ofMillis(500));
+        maxPendingTraces = maxPendingTraces > 0 ? maxPendingTraces : 10_000;
+        maxPendingAge = Objects.requireNonNullElse(maxPendingAge, Duration.ofMinutes(1));
+    }
+}
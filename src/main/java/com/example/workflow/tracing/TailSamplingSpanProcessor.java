@@ -0,0 +1,229 @@
+package com.example.workflow.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the spans of each trace until its local root span ends, then passes
+ * the whole trace to the delegate or drops it. Spans that end after their
+ * root follow its decision. Spans are passed through unsampled, and counted
+ * in {@code workflow.tracing.tail.unsampled}, when more than
+ * {@code maxPendingTraces} traces are pending or their root has not ended
+ * within {@code maxPendingAge}.
+ */
+class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final AttributeKey<String> STATUS = AttributeKey.stringKey("status");
+    // how long a decision is kept for spans that end after their root
+    private static final long DECIDED_RETENTION_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final SpanProcessor delegate;
+    private final long latencyThresholdNanos;
+    private final long keepBelow;
+    private final int maxPendingTraces;
+    private final long maxPendingAgeNanos;
+    private final Map<String, Trace> traces = new ConcurrentHashMap<>();
+    private final AtomicInteger undecided = new AtomicInteger();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    private final Counter overflow;
+    private final Counter expired;
+
+    TailSamplingSpanProcessor(SpanProcessor delegate, TailSamplingProperties properties, MeterRegistry meters) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = properties.latencyThreshold().toNanos();
+        this.keepBelow = (long) (Long.MAX_VALUE * Math.min(Math.max(properties.keepRatio(), 0), 1));
+        this.maxPendingTraces = properties.maxPendingTraces();
+        this.maxPendingAgeNanos = properties.maxPendingAge().toNanos();
+        this.overflow = meters.counter("workflow.tracing.tail.unsampled", "reason", "overflow");
+        this.expired = meters.counter("workflow.tracing.tail.unsampled", "reason", "expired");
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        delegate.onStart(parentContext, span);
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return delegate.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        long now = System.nanoTime();
+        sweep(now);
+        String traceId = span.getSpanContext().getTraceId();
+        SpanContext parent = span.getParentSpanContext();
+        Trace trace = traces.get(traceId);
+        if (parent.isValid() && !parent.isRemote()) {
+            if (trace == null && undecided.get() >= maxPendingTraces) {
+                overflow.increment();
+                delegate.onEnd(span);
+                return;
+            }
+            if (trace == null) {
+                trace = traces.computeIfAbsent(traceId, id -> new Trace(now, undecided));
+            }
+            if (!trace.add(span) && trace.kept()) {
+                delegate.onEnd(span);
+            }
+            return;
+        }
+        if (trace == null) {
+            trace = traces.computeIfAbsent(traceId, id -> new Trace(now, undecided));
+        }
+        List<ReadableSpan> children = trace.decide(now, span, this::keep);
+        if (children == null) {
+            // a second local root of a trace that is already decided
+            if (trace.kept()) {
+                delegate.onEnd(span);
+            }
+        } else if (trace.kept()) {
+            children.forEach(delegate::onEnd);
+            delegate.onEnd(span);
+        }
+    }
+
+    /** Exports traces whose root is overdue and forgets old decisions, at most once per interval. */
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        for (Iterator<Trace> it = traces.values().iterator(); it.hasNext(); ) {
+            Trace trace = it.next();
+            List<ReadableSpan> overdue = trace.expire(now, now - maxPendingAgeNanos);
+            if (overdue != null) {
+                expired.increment(overdue.size());
+                overdue.forEach(delegate::onEnd);
+            }
+            if (trace.decidedBefore(now - DECIDED_RETENTION_NANOS)) {
+                it.remove();
+            }
+        }
+    }
+
+    private boolean keep(ReadableSpan root, List<ReadableSpan> children) {
+        if (root.getLatencyNanos() >= latencyThresholdNanos || failed(root)) {
+            return true;
+        }
+        for (ReadableSpan child : children) {
+            if (failed(child)) {
+                return true;
+            }
+        }
+        // trace ids are random, so their low bits give a stable per-trace ratio
+        long bits = Long.parseUnsignedLong(root.getSpanContext().getTraceId().substring(16), 16) >>> 1;
+        return bits < keepBelow;
+    }
+
+    private static boolean failed(ReadableSpan span) {
+        return span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR
+                || "ERROR".equals(span.getAttribute(STATUS));
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        traces.clear();
+        undecided.set(0);
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    /**
+     * Spans of one trace. Children ending on several threads at once add to
+     * it under its lock; once decided, later spans follow {@link #kept}.
+     */
+    private static final class Trace {
+
+        private final long createdNanos;
+        private final AtomicInteger undecided;
+        private List<ReadableSpan> spans = new ArrayList<>();
+        private boolean kept;
+        private long decidedNanos;
+
+        Trace(long createdNanos, AtomicInteger undecided) {
+            this.createdNanos = createdNanos;
+            this.undecided = undecided;
+            undecided.incrementAndGet();
+        }
+
+        /** False if the trace is already decided. */
+        synchronized boolean add(ReadableSpan span) {
+            if (spans == null) {
+                return false;
+            }
+            spans.add(span);
+            return true;
+        }
+
+        /** The buffered children, or null if the trace was already decided. */
+        synchronized List<ReadableSpan> decide(long now, ReadableSpan root, KeepPolicy policy) {
+            if (spans == null) {
+                return null;
+            }
+            List<ReadableSpan> children = spans;
+            kept = policy.keep(root, children);
+            close(now);
+            return children;
+        }
+
+        /** The buffered spans if the trace is undecided and older than {@code cutoff}; it is then kept. */
+        synchronized List<ReadableSpan> expire(long now, long cutoff) {
+            if (spans == null || createdNanos - cutoff > 0) {
+                return null;
+            }
+            List<ReadableSpan> overdue = spans;
+            kept = true;
+            close(now);
+            return overdue;
+        }
+
+        synchronized boolean kept() {
+            return kept;
+        }
+
+        synchronized boolean decidedBefore(long cutoff) {
+            return spans == null && decidedNanos - cutoff < 0;
+        }
+
+        private void close(long now) {
+            spans = null;
+            decidedNanos = now;
+            undecided.decrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeepPolicy {
+        boolean keep(ReadableSpan root, List<ReadableSpan> children);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.workflow.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.TracingObservationHandler.TracingContext;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import reactor.core.publisher.Mono;
+
+@Configuration
+@EnableConfigurationProperties(TailSamplingProperties.class)
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "workflow.tracing.tail-sampling", name = "enabled", havingValue = "true")
+    SpanProcessors tailSamplingSpanProcessors(BatchSpanProcessor otelSpanProcessor,
+                                              TailSamplingProperties properties,
+                                              MeterRegistry meters) {
+        return SpanProcessors.of(new TailSamplingSpanProcessor(otelSpanProcessor, properties, meters));
+    }
+
+    /** Adds the current trace id to outbound calls, next to the W3C traceparent header. */
+    @Bean
+    RestTemplateCustomizer traceIdHeaderCustomizer(Tracer tracer,
+                                                   @Value("${workflow.tracing.trace-id-header:X-Trace-Id}") String header) {
+        return rest -> rest.getInterceptors().add((req, body, exec) -> {
+            var span = tracer.currentSpan();
+            if (span != null) {
+                req.getHeaders().set(header, span.context().traceId());
+            }
+            return exec.execute(req, body);
+        });
+    }
+
+    /** Same header for the reactive engine, taken from the observation in the Reactor context. */
+    @Bean
+    WebClientCustomizer traceIdHeaderWebClientCustomizer(
+            @Value("${workflow.tracing.trace-id-header:X-Trace-Id}") String header) {
+        return web -> web.filter((req, next) -> Mono.deferContextual(ctx -> {
+            Observation obs = ctx.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+            TracingContext tracing = obs == null ? null : obs.getContext().get(TracingContext.class);
+            if (tracing == null || tracing.getSpan() == null) {
+                return next.exchange(req);
+            }
+            return next.exchange(ClientRequest.from(req)
+                    .header(header, tracing.getSpan().context().traceId())
+                    .build());
+        }));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.workflow.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * @param iterations  synthetic executions per sample payload of each workflow
+ * @param maxDuration time after which warm-up stops early and the service becomes ready anyway
+ */
+@ConfigurationProperties("workflow.warmup")
+public record WarmupProperties(boolean enabled,
+                               int iterations,
+                               Duration maxDuration) {
+
+    public WarmupProperties {
+        iterations = iterations > 0 ? iterations : 500;
+        maxDuration = Objects.requireNonNullElse(maxDuration, Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.workflow.warmup;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loopback downstream for synthetic executions, so warm-up sends nothing to real services.
+ * Reactor Netty sets TCP_NODELAY on its own sockets; with the JDK server the
+ * headers and body of each answer went out as two segments and Nagle plus
+ * delayed ACK cost ~40 ms per synthetic call.
+ */
+final class WarmupStub implements AutoCloseable {
+
+    private static final byte[] BODY = "{\"valid\":true}".getBytes(StandardCharsets.UTF_8);
+
+    // own event loop, so the stub leaves no threads behind in a servlet application
+    private final LoopResources loops = LoopResources.create("warmup-stub", 1, true);
+    private final DisposableServer server;
+
+    WarmupStub() {
+        server = HttpServer.create()
+                .host(InetAddress.getLoopbackAddress().getHostAddress())
+                .port(0)
+                .runOn(loops)
+                .handle((req, res) -> req.receive().then(res
+                        .header("Content-Type", "application/json")
+                        .header("Content-Length", String.valueOf(BODY.length))
+                        .sendByteArray(Mono.just(BODY))
+                        .then()))
+                .bindNow();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.port() + "/warmup";
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.dispose();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.workflow.warmup;
+
+import com.example.workflow.ComponentRegistry;
+import com.example.workflow.WarmableWorkflow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs synthetic executions of every active workflow before the service
+ * reports ready. Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC} only
+ * after all runners have returned, so {@code /actuator/health/readiness}
+ * stays down until the hot paths are compiled and the HTTP client is loaded.
+ */
+@Component
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WorkflowWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowWarmup.class);
+
+    private final WarmupProperties properties;
+    private final List<WarmableWorkflow> workflows;
+    private final ComponentRegistry components;
+
+    public WorkflowWarmup(WarmupProperties properties, List<WarmableWorkflow> workflows, ComponentRegistry components) {
+        this.properties = properties;
+        this.workflows = workflows;
+        this.components = components;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("{} of {} workflow components instantiated: {}", components.instantiated().size(),
+                components.names().size(), components.instantiated());
+        if (!properties.enabled()) {
+            return;
+        }
+        long deadline = System.nanoTime() + properties.maxDuration().toNanos();
+        try (WarmupStub stub = new WarmupStub()) {
+            for (WarmableWorkflow workflow : workflows) {
+                long start = System.nanoTime();
+                int runs = warm(workflow, stub.url(), deadline);
+                log.info("Warmed up {} with {} synthetic executions in {} ms", workflow.workflowId(), runs,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+
+    private int warm(WarmableWorkflow workflow, String url, long deadline) {
+        int runs = 0;
+        for (int i = 0; i < properties.iterations(); i++) {
+            for (Map<String, Object> body : workflow.samplePayloads()) {
+                if (System.nanoTime() > deadline) {
+                    log.warn("Warm-up of {} stopped after {} executions: max-duration {} reached",
+                            workflow.workflowId(), runs, properties.maxDuration());
+                    return runs;
+                }
+                try {
+                    workflow.runSynthetic(body, url);
+                } catch (RuntimeException ex) {
+                    // failure branches are worth compiling too
+                    log.debug("Synthetic execution of {} failed", workflow.workflowId(), ex);
+                }
+                runs++;
+            }
+        }
+        return runs;
+    }
+}
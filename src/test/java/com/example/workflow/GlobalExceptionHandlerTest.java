@@ -0,0 +1,44 @@
+package com.example.workflow;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void workflowFailuresUseTheirCodesStatus() throws IOException {
+        ResponseEntity<byte[]> res = handler.handle(WorkflowFailure.of(ErrorCode.QUOTA_EXCEEDED, "slow down"));
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(res.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+        assertThat(json.readTree(res.getBody()).get("detail").asText()).isEqualTo("slow down");
+    }
+
+    @Test
+    void unexpectedExceptionsDoNotLeakTheirMessage() throws IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/workflows/execute");
+
+        ResponseEntity<?> res = handler.handle(new IllegalStateException("jdbc:postgresql://db:5432 password=secret"), req);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        JsonNode body = json.readTree((byte[]) res.getBody());
+        assertThat(body.get("code").asText()).isEqualTo("INTERNAL");
+        assertThat(body.get("detail").asText()).isEqualTo(ErrorCode.INTERNAL.title());
+        assertThat(body.get("instance").asText()).isEqualTo("/workflows/execute");
+        assertThat(body.toString()).doesNotContain("secret");
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.workflow;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MergeNodeTest {
+
+    private final MergeNode merge = new MergeNode();
+
+    @AfterEach
+    void shutdown() {
+        merge.shutdown();
+    }
+
+    @Test
+    void mergesBatchOutputsInInputOrder() {
+        // later batches finish first
+        WorkflowComponent slowFirst = ctx -> {
+            sleep(5 * (10 - (int) ctx.inputs().get("batchIndex")));
+            return ComponentResult.ok(ctx.inputs().get("items"));
+        };
+
+        ComponentResult res = merge(Map.of("batches", batches(10, 3), "node", slowFirst, "parallelism", 4));
+
+        assertThat(res.status()).isEqualTo(Status.SUCCESS);
+        assertThat(res.data()).isEqualTo(IntStream.range(0, 30).boxed().toList());
+    }
+
+    @Test
+    void runsAtMostParallelismBatchesAtOnce() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        WorkflowComponent node = ctx -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(10);
+            running.decrementAndGet();
+            return ComponentResult.ok(ctx.inputs().get("batchIndex"));
+        };
+
+        ComponentResult res = merge(Map.of("batches", batches(12, 1), "node", node, "parallelism", 3L));
+
+        assertThat(res.data()).isEqualTo(IntStream.range(0, 12).boxed().toList());
+        assertThat(peak).hasValueBetween(1, 3);
+    }
+
+    @Test
+    void streamsEarlierBatchesBeforeLaterOnesFinish() throws InterruptedException {
+        CountDownLatch firstDelivered = new CountDownLatch(1);
+        List<Object> received = new CopyOnWriteArrayList<>();
+        Consumer<Object> sink = item -> {
+            received.add(item);
+            firstDelivered.countDown();
+        };
+        // the last batch only finishes once the sink has seen the first one
+        WorkflowComponent node = ctx -> {
+            int index = (int) ctx.inputs().get("batchIndex");
+            if (index == 3 && !await(firstDelivered)) {
+                return ComponentResult.error("first batch was held back");
+            }
+            return ComponentResult.ok(ctx.inputs().get("items"));
+        };
+
+        ComponentResult res = merge(Map.of("batches", batches(4, 2), "node", node, "parallelism", 4, "sink", sink));
+
+        assertThat(res.status()).isEqualTo(Status.SUCCESS);
+        assertThat(res.data()).isEqualTo(Map.of("count", 8L));
+        assertThat(received).isEqualTo(IntStream.range(0, 8).boxed().toList());
+    }
+
+    @Test
+    void reportsTheFailingBatch() {
+        WorkflowComponent node = ctx -> (int) ctx.inputs().get("batchIndex") == 1
+                ? ComponentResult.failed(WorkflowFailure.of(ErrorCode.UPSTREAM_FAILED, "down"))
+                : ComponentResult.ok(List.of());
+
+        ComponentResult res = merge(Map.of("batches", batches(3, 1), "node", node));
+
+        assertThat(res.failure().code()).isEqualTo(ErrorCode.UPSTREAM_FAILED);
+        assertThat(res.error()).isEqualTo("batch 1: down");
+    }
+
+    @Test
+    void aThrowingBatchWithoutMessageStillFailsCleanly() {
+        WorkflowComponent node = ctx -> {
+            if ((int) ctx.inputs().get("batchIndex") == 2) {
+                throw new IllegalStateException();
+            }
+            return ComponentResult.ok(List.of());
+        };
+
+        ComponentResult res = merge(Map.of("batches", batches(3, 1), "node", node));
+
+        assertThat(res.failure().code()).isEqualTo(ErrorCode.NODE_FAILED);
+        assertThat(res.error()).isEqualTo("batch 2: null");
+    }
+
+    @Test
+    void rejectsAParallelismBelowOneOrNotANumber() {
+        WorkflowComponent node = ctx -> ComponentResult.ok(List.of());
+
+        assertThat(merge(Map.of("batches", batches(1, 1), "node", node, "parallelism", 0L)).error())
+                .isEqualTo("parallelism must be a positive number: 0");
+        assertThat(merge(Map.of("batches", batches(1, 1), "node", node, "parallelism", "4")).status())
+                .isEqualTo(Status.ERROR);
+    }
+
+    private ComponentResult merge(Map<String, Object> inputs) {
+        return merge.execute(new ComponentContext(inputs, new HashMap<>()));
+    }
+
+    /** {@code count} batches of {@code size} consecutive integers. */
+    private static List<List<?>> batches(int count, int size) {
+        List<List<?>> batches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batches.add(IntStream.range(i * size, (i + 1) * size).boxed().toList());
+        }
+        return batches;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
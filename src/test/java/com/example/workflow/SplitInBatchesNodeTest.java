@@ -0,0 +1,44 @@
+package com.example.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SplitInBatchesNodeTest {
+
+    private final SplitInBatchesNode node = new SplitInBatchesNode();
+
+    @Test
+    void cutsTheItemsIntoBatchesInOrder() {
+        ComponentResult res = split(Map.of("items", List.of(1, 2, 3, 4, 5), "batchSize", 2));
+
+        assertThat(res.status()).isEqualTo(Status.SUCCESS);
+        assertThat(res.data()).isEqualTo(List.of(List.of(1, 2), List.of(3, 4), List.of(5)));
+    }
+
+    @Test
+    void acceptsAnyNumberAsBatchSize() {
+        assertThat(split(Map.of("items", List.of(1, 2, 3), "batchSize", 2L)).data())
+                .isEqualTo(List.of(List.of(1, 2), List.of(3)));
+        assertThat(split(Map.of("items", List.of(1, 2, 3), "batchSize", 3.0)).data())
+                .isEqualTo(List.of(List.of(1, 2, 3)));
+        assertThat(split(Map.of("items", List.of(1, 2, 3), "batchSize", Long.MAX_VALUE)).data())
+                .isEqualTo(List.of(List.of(1, 2, 3)));
+    }
+
+    @Test
+    void rejectsABatchSizeBelowOneOrNotANumber() {
+        assertThat(split(Map.of("items", List.of(1), "batchSize", 0)).error())
+                .isEqualTo("batchSize must be a positive number: 0");
+        assertThat(split(Map.of("items", List.of(1), "batchSize", 0.5)).status()).isEqualTo(Status.ERROR);
+        assertThat(split(Map.of("items", List.of(1), "batchSize", "10")).status()).isEqualTo(Status.ERROR);
+    }
+
+    private ComponentResult split(Map<String, Object> inputs) {
+        return node.execute(new ComponentContext(inputs, new HashMap<>()));
+    }
+}
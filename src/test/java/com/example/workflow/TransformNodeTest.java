@@ -0,0 +1,57 @@
+package com.example.workflow;
+
+import com.example.workflow.parallel.ItemMapper;
+import com.example.workflow.parallel.ParallelProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransformNodeTest {
+
+    private final TransformNode node = new TransformNode(
+            new ItemMapper(new ParallelProperties(4, 32, Duration.ofNanos(1), 8, 0), new SimpleMeterRegistry()));
+
+    @Test
+    void mapsEveryItemInOrder() {
+        List<Integer> items = IntStream.range(0, 5_000).boxed().toList();
+        Function<Integer, String> transform = i -> "item-" + i;
+
+        ComponentResult res = transform(Map.of("items", items, "transform", transform));
+
+        assertThat(res.status()).isEqualTo(Status.SUCCESS);
+        assertThat(res.data()).isEqualTo(items.stream().map(i -> "item-" + i).toList());
+    }
+
+    @Test
+    void aFailingTransformFailsTheNode() {
+        Function<Integer, Integer> transform = i -> {
+            if (i == 4_000) {
+                throw new IllegalArgumentException("cannot map " + i);
+            }
+            return i;
+        };
+
+        ComponentResult res = transform(Map.of("items", IntStream.range(0, 5_000).boxed().toList(),
+                "transform", transform, "key", "failing"));
+
+        assertThat(res.status()).isEqualTo(Status.ERROR);
+        assertThat(res.error()).isEqualTo("transform failed: cannot map 4000");
+    }
+
+    @Test
+    void requiresItemsAndTransform() {
+        assertThat(transform(Map.of("items", List.of(1))).error()).isEqualTo("items and transform are required");
+    }
+
+    private ComponentResult transform(Map<String, Object> inputs) {
+        return node.execute(new ComponentContext(inputs, new HashMap<>()));
+    }
+}
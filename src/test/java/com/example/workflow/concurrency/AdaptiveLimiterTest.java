@@ -0,0 +1,124 @@
+package com.example.workflow.concurrency;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveLimiterTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @Test
+    void grantsUpToTheLimitAtOnce() {
+        AdaptiveLimiter limiter = limiter(2, 0, Duration.ofSeconds(1));
+
+        assertThat(limiter.acquire()).isCompleted();
+        assertThat(limiter.acquire()).isCompleted();
+
+        assertThat(limiter.inflight()).isEqualTo(2);
+        assertThat(outcome("granted")).isEqualTo(2);
+    }
+
+    @Test
+    void releasingAPermitAdmitsTheWaitersInOrder() {
+        AdaptiveLimiter limiter = limiter(1, 2, Duration.ofSeconds(5));
+        Permit first = limiter.acquire().join();
+        CompletableFuture<Permit> second = limiter.acquire();
+        CompletableFuture<Permit> third = limiter.acquire();
+        assertThat(second).isNotDone();
+        assertThat(third).isNotDone();
+
+        first.ignore();
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+
+        second.join().ignore();
+        assertThat(third).isCompleted();
+        third.join().ignore();
+        assertThat(limiter.inflight()).isZero();
+        assertThat(outcome("queued")).isEqualTo(2);
+    }
+
+    @Test
+    void shedsAtOnceWhenTheQueueIsFull() {
+        AdaptiveLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        limiter.acquire().join();
+        CompletableFuture<Permit> waiting = limiter.acquire();
+
+        CompletableFuture<Permit> shed = limiter.acquire();
+
+        assertThat(waiting).isNotDone();
+        assertOverloaded(shed);
+        assertThat(outcome("shed")).isEqualTo(1);
+    }
+
+    @Test
+    void shedsAtOnceWithoutMaxWait() {
+        AdaptiveLimiter limiter = limiter(1, 10, Duration.ZERO);
+        limiter.acquire().join();
+
+        assertOverloaded(limiter.acquire());
+    }
+
+    @Test
+    void waitersTimeOutAfterMaxWaitAndLeaveTheQueue() {
+        AdaptiveLimiter limiter = limiter(1, 1, Duration.ofMillis(50));
+        Permit held = limiter.acquire().join();
+
+        CompletableFuture<Permit> waiter = limiter.acquire();
+        assertOverloaded(waiter);
+        assertThat(outcome("shed")).isEqualTo(1);
+
+        // the slot the timed-out waiter would have taken goes to the next request
+        held.ignore();
+        assertThat(limiter.inflight()).isZero();
+        assertThat(limiter.acquire()).isCompleted();
+    }
+
+    @Test
+    void droppedPermitsBackTheLimitOff() {
+        AdaptiveLimiter limiter = limiter(20, 0, Duration.ZERO);
+
+        limiter.acquire().join().dropped();
+
+        assertThat(limiter.limit()).isEqualTo(18);
+        assertThat(outcome("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void ignoredPermitsLeaveTheLimitAlone() {
+        AdaptiveLimiter limiter = limiter(20, 0, Duration.ZERO);
+
+        Permit permit = limiter.acquire().join();
+        permit.ignore();
+        permit.dropped();
+
+        assertThat(limiter.limit()).isEqualTo(20);
+        assertThat(limiter.inflight()).isZero();
+    }
+
+    private AdaptiveLimiter limiter(int limit, int maxQueue, Duration maxWait) {
+        ConcurrencyProperties.Limit settings = new ConcurrencyProperties.Limit(limit, 1, 1000, maxQueue);
+        return new AdaptiveLimiter(settings, maxWait.toNanos(), meters, Tags.of("workflow", "wf"));
+    }
+
+    private double outcome(String outcome) {
+        return meters.get("workflow.concurrency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static void assertOverloaded(CompletableFuture<Permit> future) {
+        assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(WorkflowFailure.class);
+        assertThatThrownBy(future::join).isInstanceOf(CompletionException.class)
+                .satisfies(ex -> assertThat(((WorkflowFailure) ex.getCause()).code()).isEqualTo(ErrorCode.OVERLOADED));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.workflow.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void growsWhileTheRttHoldsAndRequestsFillTheLimit() {
+        GradientLimit limit = limit(10, 1, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    void doesNotGrowWhenDemandIsBelowHalfTheLimit() {
+        GradientLimit limit = limit(10, 1, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT, 2, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void neverGrowsPastMaxLimit() {
+        GradientLimit limit = limit(10, 1, 30);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(RTT, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(30);
+    }
+
+    @Test
+    void shrinksWhenTheRttRisesAboveTheLongTermAverage() {
+        GradientLimit limit = limit(50, 1, 100);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT, 50, false);
+        }
+        int before = limit.limit();
+
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(RTT * 10, before, false);
+        }
+
+        assertThat(limit.limit()).isLessThan(before);
+        assertThat(limit.lastRttNanos()).isEqualTo(RTT * 10);
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnDropsDownToMinLimit() {
+        GradientLimit limit = limit(100, 5, 100);
+
+        limit.onSample(RTT, 100, true);
+        assertThat(limit.limit()).isEqualTo(90);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT, 100, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void dropsAreNotRttSamples() {
+        GradientLimit limit = limit(10, 1, 100);
+
+        limit.onSample(RTT, 10, true);
+
+        assertThat(limit.longRttNanos()).isZero();
+        assertThat(limit.lastRttNanos()).isZero();
+    }
+
+    private static GradientLimit limit(int initial, int min, int max) {
+        return new GradientLimit(new ConcurrencyProperties.Limit(initial, min, max, 0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.workflow.error;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowFailureTest {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void everyCodeMapsToItsStatus() {
+        Map<ErrorCode, HttpStatus> expected = Map.of(
+                ErrorCode.VALIDATION_FAILED, HttpStatus.BAD_REQUEST,
+                ErrorCode.QUOTA_EXCEEDED, HttpStatus.TOO_MANY_REQUESTS,
+                ErrorCode.IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY,
+                ErrorCode.UPSTREAM_FAILED, HttpStatus.BAD_GATEWAY,
+                ErrorCode.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE,
+                ErrorCode.NODE_FAILED, HttpStatus.INTERNAL_SERVER_ERROR,
+                ErrorCode.INTERNAL, HttpStatus.INTERNAL_SERVER_ERROR);
+
+        assertThat(expected).containsOnlyKeys(ErrorCode.values());
+        expected.forEach((code, status) -> assertThat(code.status()).as(code.name()).isEqualTo(status));
+    }
+
+    @Test
+    void rendersTheProblemBody() throws IOException {
+        JsonNode body = json.readTree(WorkflowFailure.of(ErrorCode.UPSTREAM_FAILED, "validate-url: 500")
+                .problemJson(null));
+
+        assertThat(body.get("type").asText()).isEqualTo("urn:workflow:error:upstream-failed");
+        assertThat(body.get("title").asText()).isEqualTo("Upstream call failed");
+        assertThat(body.get("status").asInt()).isEqualTo(502);
+        assertThat(body.get("code").asText()).isEqualTo("UPSTREAM_FAILED");
+        assertThat(body.get("detail").asText()).isEqualTo("validate-url: 500");
+        assertThat(body.has("instance")).isFalse();
+    }
+
+    @Test
+    void escapesTheDetailAndInstance() throws IOException {
+        String detail = "say \"hi\"\\\n\tand \u0001";
+        JsonNode body = json.readTree(WorkflowFailure.of(ErrorCode.NODE_FAILED, detail)
+                .problemJson("/workflows/\"x\""));
+
+        assertThat(body.get("detail").asText()).isEqualTo(detail);
+        assertThat(body.get("instance").asText()).isEqualTo("/workflows/\"x\"");
+    }
+
+    @Test
+    void sharedFailuresHandOutCopiesOfTheirBody() {
+        WorkflowFailure shared = ErrorCode.OVERLOADED.failure();
+        byte[] first = shared.problemJson(null);
+        byte[] original = first.clone();
+
+        first[0] = 'X';
+
+        assertThat(shared.problemJson(null)).isEqualTo(original).isNotSameAs(first);
+        assertThat(shared.getMessage()).isEqualTo(ErrorCode.OVERLOADED.title());
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pagesNewestFirstAcrossSegmentsWithoutGaps() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, 256);
+        for (long id = 1; id <= 20; id++) {
+            assertThat(store.append(record(id, "wf", Status.SUCCESS, id))).isTrue();
+        }
+        assertThat(store.segmentCount()).isGreaterThan(1);
+
+        List<Long> seen = new ArrayList<>();
+        Long before = null;
+        do {
+            HistoryPage page = store.query(null, null, null, null, before, 3);
+            page.items().forEach(s -> seen.add(s.id()));
+            before = page.next();
+        } while (before != null);
+
+        assertThat(seen).containsExactly(20L, 19L, 18L, 17L, 16L, 15L, 14L, 13L, 12L, 11L,
+                10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void filtersByWorkflowStatusAndStartTime() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, SEGMENT_SIZE);
+        store.append(record(1, "a", Status.SUCCESS, 100));
+        store.append(record(2, "b", Status.ERROR, 200));
+        store.append(record(3, "a", Status.ERROR, 300));
+        store.append(record(4, "a", Status.SUCCESS, 400));
+
+        assertThat(ids(store.query("a", null, null, null, null, 10))).containsExactly(4L, 3L, 1L);
+        assertThat(ids(store.query(null, Status.ERROR, null, null, null, 10))).containsExactly(3L, 2L);
+        assertThat(ids(store.query(null, null, 200L, 300L, null, 10))).containsExactly(3L, 2L);
+        assertThat(ids(store.query("a", Status.ERROR, null, null, null, 10))).containsExactly(3L);
+        assertThat(ids(store.query("a", Status.SUCCESS, null, null, 4L, 10))).containsExactly(1L);
+        assertThat(ids(store.query("b", Status.SUCCESS, null, null, null, 10))).isEmpty();
+    }
+
+    @Test
+    void findsFullRecords() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, 256);
+        for (long id = 1; id <= 10; id++) {
+            store.append(record(id, "wf", Status.SUCCESS, id));
+        }
+
+        assertThat(store.find(4)).isEqualTo(record(4, "wf", Status.SUCCESS, 4));
+        assertThat(store.find(11)).isNull();
+    }
+
+    @Test
+    void recoversSegmentsLeftUnsealedByACrash() throws IOException {
+        ExecutionStore crashed = new ExecutionStore(dir, SEGMENT_SIZE);
+        for (long id = 1; id <= 5; id++) {
+            crashed.append(record(id, "wf", Status.SUCCESS, id));
+        }
+        // no close(): the segment keeps its zero-filled preallocated tail
+
+        ExecutionStore store = new ExecutionStore(dir, SEGMENT_SIZE);
+
+        assertThat(store.maxId()).isEqualTo(5);
+        assertThat(ids(store.query(null, null, null, null, null, 10))).containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(store.append(record(6, "wf", Status.SUCCESS, 6))).isTrue();
+        assertThat(store.find(6)).isNotNull();
+    }
+
+    @Test
+    void dropsATornFrameAtTheEndOfASegment() throws IOException {
+        ExecutionStore first = new ExecutionStore(dir, SEGMENT_SIZE);
+        for (long id = 1; id <= 3; id++) {
+            first.append(record(id, "wf", Status.SUCCESS, id));
+        }
+        first.close();
+        Path segment = onlySegment();
+        long intact = Files.size(segment);
+        // a frame whose length was written but whose body was cut short
+        appendRaw(segment, ByteBuffer.allocate(12).putInt(100).put(Segment.RECORD).put(new byte[7]).flip());
+
+        ExecutionStore store = new ExecutionStore(dir, SEGMENT_SIZE);
+
+        assertThat(ids(store.query(null, null, null, null, null, 10))).containsExactly(3L, 2L, 1L);
+        assertThat(Files.size(segment)).isEqualTo(intact);
+    }
+
+    @Test
+    void dropsAFrameWhoseBodyCannotBeDecoded() throws IOException {
+        ExecutionStore first = new ExecutionStore(dir, SEGMENT_SIZE);
+        first.append(record(1, "wf", Status.SUCCESS, 1));
+        first.close();
+        Path segment = onlySegment();
+        long intact = Files.size(segment);
+        byte[] garbage = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+        appendRaw(segment, ByteBuffer.allocate(8).putInt(garbage.length + 1).put(Segment.RECORD).put(garbage).flip());
+
+        ExecutionStore store = new ExecutionStore(dir, SEGMENT_SIZE);
+
+        assertThat(ids(store.query(null, null, null, null, null, 10))).containsExactly(1L);
+        assertThat(Files.size(segment)).isEqualTo(intact);
+    }
+
+    @Test
+    void retentionDropsOldSealedSegmentsButKeepsTheActiveOne() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, 256);
+        for (long id = 1; id <= 20; id++) {
+            store.append(record(id, "wf", Status.SUCCESS, id * 1000));
+        }
+        int before = store.segmentCount();
+
+        int dropped = store.dropOlderThan(10_500);
+
+        assertThat(dropped).isPositive();
+        assertThat(store.segmentCount()).isEqualTo(before - dropped);
+        assertThat(segmentFiles()).hasSize(store.segmentCount());
+        assertThat(store.find(20)).isNotNull();
+        assertThat(store.find(1)).isNull();
+
+        store.dropOlderThan(Long.MAX_VALUE);
+        assertThat(store.segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsRecordsLargerThanASegment() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, 256);
+
+        assertThat(store.append(new ExecutionRecord(1, "wf", Status.SUCCESS, 1, 1,
+                Map.of("big", "x".repeat(1000)), List.of(), null))).isFalse();
+    }
+
+    @Test
+    void aRejectedRecordLeavesNoKeysBehind() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, 256);
+        assertThat(store.append(oversized(1))).isFalse();
+        assertThat(store.append(record(2, "wf", Status.SUCCESS, 2))).isTrue();
+        store.close();
+
+        ExecutionStore reopened = new ExecutionStore(dir, 256);
+
+        assertThat(reopened.find(2)).isEqualTo(record(2, "wf", Status.SUCCESS, 2));
+        assertThat(reopened.query(null, null, null, null, null, 10).items())
+                .extracting(ExecutionSummary::workflowId).containsExactly("wf");
+    }
+
+    @Test
+    void aRecordRejectedAfterRollingLeavesNoKeysBehind() throws IOException {
+        ExecutionStore store = new ExecutionStore(dir, 256);
+        assertThat(store.append(record(1, "wf", Status.SUCCESS, 1))).isTrue();
+        assertThat(store.append(oversized(2))).isFalse();
+        assertThat(store.append(record(3, "wf", Status.SUCCESS, 3))).isTrue();
+        store.close();
+
+        ExecutionStore reopened = new ExecutionStore(dir, 256);
+
+        assertThat(reopened.find(1)).isEqualTo(record(1, "wf", Status.SUCCESS, 1));
+        assertThat(reopened.find(3)).isEqualTo(record(3, "wf", Status.SUCCESS, 3));
+    }
+
+    private static ExecutionRecord oversized(long id) {
+        return new ExecutionRecord(id, "huge", Status.SUCCESS, id, 1,
+                Map.of("big", "x".repeat(1000)), List.of(), null);
+    }
+
+    private static ExecutionRecord record(long id, String workflowId, Status status, long startedAt) {
+        return new ExecutionRecord(id, workflowId, status, startedAt, 10,
+                Map.of("query", Map.of("email", "user" + id + "@example.com")), List.of(), null);
+    }
+
+    private static List<Long> ids(HistoryPage page) {
+        return page.items().stream().map(ExecutionSummary::id).toList();
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.toString().endsWith(".seg")).toList();
+        }
+    }
+
+    private static void appendRaw(Path file, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(bytes);
+        }
+    }
+}
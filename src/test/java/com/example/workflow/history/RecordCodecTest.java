@@ -0,0 +1,91 @@
+package com.example.workflow.history;
+
+import com.example.workflow.Status;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordCodecTest {
+
+    private final RecordCodec codec = new RecordCodec();
+    private final KeyDictionary keys = new KeyDictionary();
+
+    @Test
+    void roundTripsEveryValueType() {
+        Map<String, Object> input = new LinkedHashMap<>();
+        input.put("null", null);
+        input.put("yes", true);
+        input.put("no", false);
+        input.put("int", -42);
+        input.put("long", Long.MIN_VALUE);
+        input.put("double", 3.25);
+        input.put("text", "héllo ✓");
+        input.put("list", List.of(1, "two", List.of(3L)));
+        input.put("map", Map.of("nested", Map.of("deep", 7)));
+        ExecutionRecord record = new ExecutionRecord(Long.MAX_VALUE, "validate-email", Status.ERROR,
+                1_700_000_000_000L, 123_456_789L, input,
+                List.of(new ExecutionRecord.NodeRecord("Webhook", "WebhookNode", Status.SUCCESS, 10, input, null),
+                        new ExecutionRecord.NodeRecord("HTTP", "HttpRequestNode", Status.ERROR, 20, null, "boom")),
+                "boom");
+
+        assertThat(roundTrip(record)).isEqualTo(record);
+    }
+
+    @Test
+    void storesUnknownValuesAsTheirString() {
+        ExecutionRecord record = record(1, Map.of("value", new StringBuilder("built")));
+
+        assertThat(roundTrip(record).input()).containsEntry("value", "built");
+    }
+
+    @Test
+    void reportsOnlyKeysNotYetInTheDictionary() {
+        List<String> first = new ArrayList<>();
+        codec.encodeRecord(record(1, Map.of("email", "a@b")), keys, first);
+        List<String> second = new ArrayList<>();
+        codec.encodeRecord(record(2, Map.of("email", "c@d")), keys, second);
+
+        assertThat(first).containsExactly("validate-email", "email");
+        assertThat(second).isEmpty();
+    }
+
+    @Test
+    void decodesTheSummaryWithoutTheRest() {
+        ExecutionRecord record = record(99, Map.of("k", "v"));
+        RecordCodec.Buffer body = codec.encodeRecord(record, keys, new ArrayList<>());
+
+        ExecutionSummary summary = RecordCodec.decodeSummary(
+                ByteBuffer.wrap(Arrays.copyOf(body.array(), body.length())), keys);
+
+        assertThat(summary).isEqualTo(record.summary());
+    }
+
+    @Test
+    void roundTripsDictionaryFrames() {
+        RecordCodec.Buffer frame = codec.encodeKeys(List.of("a", "ключ", ""));
+
+        assertThat(RecordCodec.decodeKeys(ByteBuffer.wrap(Arrays.copyOf(frame.array(), frame.length()))))
+                .containsExactly("a", "ключ", "");
+    }
+
+    private ExecutionRecord roundTrip(ExecutionRecord record) {
+        List<String> added = new ArrayList<>();
+        RecordCodec.Buffer body = codec.encodeRecord(record, keys, added);
+        byte[] bytes = Arrays.copyOf(body.array(), body.length());
+        // a reader rebuilds the dictionary from the key frames
+        KeyDictionary read = new KeyDictionary();
+        added.forEach(read::add);
+        return RecordCodec.decodeRecord(ByteBuffer.wrap(bytes), read);
+    }
+
+    static ExecutionRecord record(long id, Map<String, Object> input) {
+        return new ExecutionRecord(id, "validate-email", Status.SUCCESS, 1_000 + id, 5, input, List.of(), null);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.workflow.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void laterFramesReplaceEarlierOnesForTheSameKey() throws IOException {
+        Path file = dir.resolve("idempotency.log");
+        try (IdempotencyLog log = new IdempotencyLog(file)) {
+            log.append("a", entry(10, "first"));
+            log.append("b", entry(20, "other"));
+            log.append("a", entry(30, "second"));
+        }
+
+        Map<String, IdempotencyStore.Entry> loaded = load(file);
+
+        assertThat(loaded).containsOnlyKeys("a", "b");
+        assertThat(body(loaded.get("a"))).isEqualTo("second");
+        assertThat(loaded.get("a").expiresAt()).isEqualTo(30);
+    }
+
+    @Test
+    void keepsTheRequestHashOfEachFrame() throws IOException {
+        Path file = dir.resolve("idempotency.log");
+        try (IdempotencyLog log = new IdempotencyLog(file)) {
+            log.append("h", new IdempotencyStore.Entry(10, bytes("request-hash"), bytes("body")));
+            log.append("p", entry(10, "other"));
+        }
+
+        Map<String, IdempotencyStore.Entry> loaded = load(file);
+
+        assertThat(loaded.get("h").request()).isEqualTo(bytes("request-hash"));
+        assertThat(body(loaded.get("h"))).isEqualTo("body");
+        assertThat(loaded.get("p").request()).isNull();
+    }
+
+    @Test
+    void dropsATornFrameAtTheEnd() throws IOException {
+        Path file = dir.resolve("idempotency.log");
+        try (IdempotencyLog log = new IdempotencyLog(file)) {
+            log.append("a", entry(10, "kept"));
+        }
+        // a frame whose length was written but whose rest was not
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            out.write(ByteBuffer.allocate(12).putInt(500).putLong(99).flip());
+        }
+
+        assertThat(load(file)).containsOnlyKeys("a");
+    }
+
+    @Test
+    void dropsAFrameWhoseKeyRunsPastItsEnd() throws IOException {
+        Path file = dir.resolve("idempotency.log");
+        try (IdempotencyLog log = new IdempotencyLog(file)) {
+            log.append("a", entry(10, "kept"));
+        }
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            out.write(ByteBuffer.allocate(15).putInt(11).putLong(99).putShort((short) 1000).put((byte) 0).flip());
+        }
+
+        assertThat(load(file)).containsOnlyKeys("a");
+    }
+
+    @Test
+    void compactionKeepsOnlyTheLiveEntries() throws IOException {
+        Path file = dir.resolve("idempotency.log");
+        try (IdempotencyLog log = new IdempotencyLog(file)) {
+            for (int i = 0; i < 10; i++) {
+                log.append("key-" + i, entry(i, "body-" + i));
+            }
+            assertThat(log.appended()).isEqualTo(10);
+            long before = Files.size(file);
+
+            log.compact(Map.of("key-7", entry(7, "body-7")));
+
+            assertThat(log.appended()).isZero();
+            assertThat(Files.size(file)).isLessThan(before);
+            log.append("key-8", entry(8, "body-8"));
+        }
+
+        assertThat(load(file)).containsOnlyKeys("key-7", "key-8");
+        assertThat(Files.exists(file.resolveSibling("idempotency.log.tmp"))).isFalse();
+    }
+
+    @Test
+    void storeDropsExpiredEntriesAndCompactsOnOpen() throws IOException {
+        Path file = dir.resolve("idempotency.log");
+        try (IdempotencyStore store = new IdempotencyStore(10, new IdempotencyLog(file), 0)) {
+            store.put("expired", null, bytes("old"), 100, 0);
+            store.put("live", null, bytes("new"), 1_000, 0);
+        }
+
+        try (IdempotencyStore store = new IdempotencyStore(10, new IdempotencyLog(file), 500)) {
+            assertThat(store.get("expired", 500)).isNull();
+            assertThat(store.get("live", 500).body()).isEqualTo(bytes("new"));
+            assertThat(store.size()).isEqualTo(1);
+        }
+        assertThat(load(file)).containsOnlyKeys("live");
+    }
+
+    @Test
+    void storeKeepsTheLogCompactedAsItWrites() throws IOException {
+        Path file = dir.resolve("compact.log");
+        try (IdempotencyStore store = new IdempotencyStore(3, new IdempotencyLog(file), 0)) {
+            for (int i = 0; i < 20; i++) {
+                store.put("key-" + (i % 2), null, bytes("body-" + i), 1_000, 0);
+            }
+        }
+
+        Map<String, IdempotencyStore.Entry> loaded = load(file);
+        assertThat(loaded).containsOnlyKeys("key-0", "key-1");
+        assertThat(body(loaded.get("key-1"))).isEqualTo("body-19");
+        Path reference = dir.resolve("reference.log");
+        try (IdempotencyLog log = new IdempotencyLog(reference)) {
+            log.compact(loaded);
+        }
+        // the live frames plus at most maxEntries appended after the last rewrite, not all 20
+        assertThat(Files.size(file)).isLessThan(3 * Files.size(reference));
+    }
+
+    @Test
+    void storeEvictsLeastRecentlyUsedEntries() throws IOException {
+        try (IdempotencyStore store = new IdempotencyStore(2, new IdempotencyLog(dir.resolve("lru.log")), 0)) {
+            store.put("a", null, bytes("a"), 1_000, 0);
+            store.put("b", null, bytes("b"), 1_000, 0);
+            store.get("a", 0);
+            store.put("c", null, bytes("c"), 1_000, 0);
+
+            assertThat(store.get("b", 0)).isNull();
+            assertThat(store.get("a", 0)).isNotNull();
+            assertThat(store.get("c", 0)).isNotNull();
+        }
+    }
+
+    private static Map<String, IdempotencyStore.Entry> load(Path file) throws IOException {
+        Map<String, IdempotencyStore.Entry> loaded = new LinkedHashMap<>();
+        new IdempotencyLog(file).load(loaded);
+        return loaded;
+    }
+
+    private static IdempotencyStore.Entry entry(long expiresAt, String body) {
+        return new IdempotencyStore.Entry(expiresAt, null, bytes(body));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String body(IdempotencyStore.Entry entry) {
+        return new String(entry.body(), StandardCharsets.UTF_8);
+    }
+}
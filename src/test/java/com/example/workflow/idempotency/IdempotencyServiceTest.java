@@ -0,0 +1,163 @@
+package com.example.workflow.idempotency;
+
+import com.example.workflow.error.ErrorCode;
+import com.example.workflow.error.WorkflowFailure;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void open() {
+        service = new IdempotencyService(new IdempotencyProperties(true, null, List.of("query.email"),
+                Duration.ofHours(1), 100, dir.resolve("idempotency.log")), new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        service.close();
+    }
+
+    @Test
+    void concurrentDuplicatesJoinTheFirstExecution() {
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        List<CompletableFuture<IdempotencyService.Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(service.executeAsync(key("k"), () -> {
+                runs.incrementAndGet();
+                return result;
+            }));
+        }
+        assertThat(responses).noneMatch(CompletableFuture::isDone);
+
+        result.complete(Map.of("ok", true));
+
+        assertThat(runs).hasValue(1);
+        assertThat(responses).allSatisfy(r -> assertThat(new String(r.join().body())).isEqualTo("{\"ok\":true}"));
+        assertThat(responses).filteredOn(r -> !r.join().replayed()).hasSize(1);
+    }
+
+    @Test
+    void laterDuplicatesReplayTheStoredResponse() {
+        IdempotencyService.Response first = service.execute(key("k"), () -> Map.of("n", 1));
+        IdempotencyService.Response second = service.execute(key("k"), () -> Map.of("n", 2));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.body()).isEqualTo(first.body());
+    }
+
+    @Test
+    void failuresAreNotStored() {
+        assertThatThrownBy(() -> service.execute(key("k"), () -> {
+            throw new IllegalStateException("downstream down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(service.execute(key("k"), () -> Map.of("n", 1)).replayed()).isFalse();
+    }
+
+    @Test
+    void storedResponsesSurviveARestart() throws IOException {
+        service.execute(key("k"), () -> Map.of("n", 1));
+        service.close();
+        open();
+
+        assertThat(service.execute(key("k"), () -> Map.of("n", 2)).replayed()).isTrue();
+    }
+
+    @Test
+    void keysAreScopedByTenant() {
+        Map<String, Object> body = Map.of();
+
+        String alice = service.key("wf", headers("order-1", "alice"), body).id();
+        String bob = service.key("wf", headers("order-1", "bob"), body).id();
+        String anonymous = service.key("wf", headers("order-1", null), body).id();
+
+        assertThat(alice).isNotEqualTo(bob).isNotEqualTo(anonymous);
+        assertThat(service.key("wf", headers("order-1", "alice"), body).id()).isEqualTo(alice);
+    }
+
+    @Test
+    void payloadKeysAreScopedByTenantToo() {
+        Map<String, Object> body = Map.of("query", Map.of("email", "a@example.com"));
+
+        assertThat(service.key("wf", headers(null, "alice"), body).id())
+                .isNotEqualTo(service.key("wf", headers(null, "bob"), body).id());
+        assertThat(service.key("wf", headers(null, "alice"), Map.of())).isNull();
+    }
+
+    @Test
+    void reusingAKeyForADifferentRequestIsRejected() {
+        IdempotencyService.Key first = service.key("wf", headers("order-1", "alice"), Map.of("n", 1, "m", 2));
+        IdempotencyService.Key reordered = service.key("wf", headers("order-1", "alice"), new LinkedHashMap<>(Map.of("m", 2, "n", 1)));
+        IdempotencyService.Key other = service.key("wf", headers("order-1", "alice"), Map.of("n", 2));
+        service.execute(first, () -> Map.of("ok", true));
+
+        assertThat(service.execute(reordered, () -> Map.of("ok", false)).replayed()).isTrue();
+        assertThatThrownBy(() -> service.execute(other, () -> Map.of("ok", false)))
+                .isInstanceOfSatisfying(WorkflowFailure.class,
+                        f -> assertThat(f.code()).isEqualTo(ErrorCode.IDEMPOTENCY_KEY_REUSED));
+    }
+
+    @Test
+    void aDifferentRequestCannotJoinARunningExecution() {
+        IdempotencyService.Key first = service.key("wf", headers("order-1", null), Map.of("n", 1));
+        IdempotencyService.Key other = service.key("wf", headers("order-1", null), Map.of("n", 2));
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        CompletableFuture<IdempotencyService.Response> running = service.executeAsync(first, () -> result);
+
+        assertThat(service.executeAsync(other, () -> result)).isCompletedExceptionally();
+        result.complete(Map.of("ok", true));
+        assertThat(running.join().replayed()).isFalse();
+    }
+
+    @Test
+    void payloadKeysReplayRegardlessOfTheOtherFields() {
+        IdempotencyService.Key first = service.key("wf", headers(null, null),
+                Map.of("query", Map.of("email", "a@example.com"), "note", "first"));
+        IdempotencyService.Key second = service.key("wf", headers(null, null),
+                Map.of("query", Map.of("email", "a@example.com"), "note", "second"));
+        service.execute(first, () -> Map.of("ok", true));
+
+        assertThat(service.execute(second, () -> Map.of("ok", false)).replayed()).isTrue();
+    }
+
+    private static IdempotencyService.Key key(String id) {
+        return new IdempotencyService.Key(id, null);
+    }
+
+    private static HttpHeaders headers(String key, String tenant) {
+        HttpHeaders headers = new HttpHeaders();
+        if (key != null) {
+            headers.set("Idempotency-Key", key);
+        }
+        if (tenant != null) {
+            headers.set("X-USER-ID", tenant);
+        }
+        return headers;
+    }
+}
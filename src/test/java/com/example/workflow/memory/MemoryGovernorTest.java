@@ -0,0 +1,85 @@
+package com.example.workflow.memory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryGovernorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void instancesSharingSpillDirKeepToTheirOwnFiles() throws IOException {
+        MemoryGovernor first = governor();
+        MemoryGovernor second = governor();
+        assertThat(first.spillDir()).isNotEqualTo(second.spillDir());
+        assertThat(first.spillDir().getParent()).isEqualTo(dir);
+
+        LargeValue kept = spill(second);
+        assertThat(kept.tier()).isEqualTo(Tier.FILE);
+        spill(first);
+
+        MemoryGovernor restarted = governor();
+        first.close();
+
+        assertThat(first.spillDir()).doesNotExist();
+        assertThat(Files.list(second.spillDir())).hasSize(1);
+        assertThat(kept.openStream().readAllBytes()).hasSize(64);
+        assertThat(restarted.spillDir()).isDirectory();
+    }
+
+    @Test
+    void offHeapBytesStayCountedWhileAViewIsReachable() throws Exception {
+        MemoryGovernor governor = governor(DataSize.ofKilobytes(1));
+        ExecutionMemory memory = governor.open(new HashMap<>());
+        LargeValue value = write(memory, 512);
+        assertThat(value.tier()).isEqualTo(Tier.OFF_HEAP);
+        ByteBuffer view = value.view();
+
+        memory.close();
+        collectGarbage();
+        assertThat(governor.bytes(Tier.OFF_HEAP)).isEqualTo(512);
+        assertThat(write(governor.open(new HashMap<>()), 768).tier()).isEqualTo(Tier.FILE);
+
+        assertThat(view.remaining()).isEqualTo(512);
+        view = null;
+        for (int i = 0; i < 50 && governor.bytes(Tier.OFF_HEAP) > 0; i++) {
+            collectGarbage();
+        }
+        assertThat(governor.bytes(Tier.OFF_HEAP)).isZero();
+    }
+
+    private MemoryGovernor governor() {
+        return governor(DataSize.ofBytes(0));
+    }
+
+    private MemoryGovernor governor(DataSize offHeapBudget) {
+        MemoryProperties properties = new MemoryProperties(DataSize.ofBytes(1), null, null, offHeapBudget, dir);
+        return new MemoryGovernor(properties, new SimpleMeterRegistry());
+    }
+
+    private static void collectGarbage() throws InterruptedException {
+        System.gc();
+        Thread.sleep(20);
+    }
+
+    private static LargeValue spill(MemoryGovernor governor) throws IOException {
+        return write(governor.open(new HashMap<>()), 64);
+    }
+
+    private static LargeValue write(ExecutionMemory memory, int size) throws IOException {
+        ValueWriter writer = memory.writer(size);
+        writer.write(ByteBuffer.allocate(size));
+        return (LargeValue) writer.finish();
+    }
+}
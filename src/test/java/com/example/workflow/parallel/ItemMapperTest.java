@@ -0,0 +1,106 @@
+package com.example.workflow.parallel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemMapperTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private ItemMapper mapper;
+
+    @AfterEach
+    void shutdown() {
+        mapper.shutdown();
+    }
+
+    @Test
+    void keepsInputOrderAcrossChunks() {
+        mapper = mapper(Duration.ofNanos(1), 0);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> items = IntStream.range(0, 20_000).boxed().toList();
+
+        List<Integer> mapped = mapper.map("double", items, i -> {
+            threads.add(Thread.currentThread().getName());
+            return i * 2;
+        });
+
+        assertThat(mapped).isEqualTo(items.stream().map(i -> i * 2).toList());
+        assertThat(threads).anyMatch(name -> name.startsWith("workflow-transform-"));
+        assertThat(items("parallel")).isEqualTo(20_000 - 8);
+    }
+
+    @Test
+    void smallListsStayOnTheCaller() {
+        mapper = mapper(Duration.ofNanos(1), 0);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        mapper.map("small", IntStream.range(0, 63).boxed().toList(), recordThread(threads));
+
+        assertThat(threads).containsOnly(Thread.currentThread());
+        assertThat(items("parallel")).isZero();
+    }
+
+    @Test
+    void cheapTransformsStayOnTheCaller() {
+        mapper = mapper(Duration.ofHours(1), 0);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        mapper.map("cheap", IntStream.range(0, 20_000).boxed().toList(), recordThread(threads));
+
+        assertThat(threads).containsOnly(Thread.currentThread());
+        assertThat(items("sequential")).isEqualTo(20_000);
+    }
+
+    @Test
+    void anExceptionInAChunkReachesTheCaller() {
+        mapper = mapper(Duration.ofNanos(1), 0);
+        Set<String> failedOn = ConcurrentHashMap.newKeySet();
+
+        assertThatThrownBy(() -> mapper.map("failing", IntStream.range(0, 20_000).boxed().toList(), i -> {
+            if (i == 15_000) {
+                failedOn.add(Thread.currentThread().getName());
+                throw new IllegalStateException("bad item " + i);
+            }
+            return i;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("bad item 15000");
+        assertThat(failedOn).singleElement().asString().startsWith("workflow-transform-");
+    }
+
+    @Test
+    void remembersAtMostMaxTransformsCosts() {
+        mapper = mapper(Duration.ofMillis(1), 2);
+
+        for (int i = 0; i < 10; i++) {
+            mapper.map("request-" + i, List.of(1, 2, 3), Function.identity());
+        }
+
+        assertThat(mapper.trackedTransforms()).isEqualTo(2);
+        assertThat(mapper.map("request-9", List.of(1, 2, 3), Function.identity())).containsExactly(1, 2, 3);
+    }
+
+    private ItemMapper mapper(Duration sequentialBelow, int maxTransforms) {
+        return new ItemMapper(new ParallelProperties(4, 32, sequentialBelow, 8, maxTransforms), meters);
+    }
+
+    private double items(String mode) {
+        return meters.get("workflow.transform.items").tag("mode", mode).counter().count();
+    }
+
+    private static Function<Integer, Integer> recordThread(Set<Thread> threads) {
+        return i -> {
+            threads.add(Thread.currentThread());
+            return i;
+        };
+    }
+}
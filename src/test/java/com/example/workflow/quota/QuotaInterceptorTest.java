@@ -0,0 +1,50 @@
+package com.example.workflow.quota;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuotaInterceptorTest {
+
+    private final QuotaService quotas = new QuotaService(new QuotaProperties(
+            Map.of(QuotaProperties.DEFAULT_KEY, new QuotaProperties.Limit(1, 2)),
+            Map.of(QuotaProperties.DEFAULT_KEY, new QuotaProperties.Limit(1, 1)),
+            Map.of(), Duration.ofSeconds(1), null, 0), new SimpleMeterRegistry());
+    private final QuotaInterceptor interceptor = new QuotaInterceptor(quotas);
+
+    @Test
+    void aTenantOverItsQuotaDoesNotSpendTheWorkflowQuota() throws Exception {
+        assertThat(handle("noisy").getStatus()).isEqualTo(200);
+        for (int i = 0; i < 10; i++) {
+            assertThat(handle("noisy").getStatus()).isEqualTo(429);
+        }
+
+        // one of the two workflow permits is still there
+        assertThat(handle("quiet").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectionsAreProblemsWithRetryAfter() throws Exception {
+        handle("t");
+        MockHttpServletResponse rejected = handle("t");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentType()).isEqualTo("application/problem+json");
+        assertThat(rejected.getContentAsString()).contains("\"code\":\"QUOTA_EXCEEDED\"");
+    }
+
+    private MockHttpServletResponse handle(String tenant) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/workflows/execute");
+        req.addHeader(QuotaInterceptor.TENANT_HEADER, tenant);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        interceptor.preHandle(req, res, new Object());
+        return res;
+    }
+}
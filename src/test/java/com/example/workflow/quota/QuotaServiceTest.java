@@ -0,0 +1,142 @@
+package com.example.workflow.quota;
+
+import com.example.workflow.error.WorkflowFailure;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuotaServiceTest {
+
+    private static final QuotaProperties.Limit ONE_PER_SECOND = new QuotaProperties.Limit(1, 1);
+
+    @Test
+    void keysWithoutAnyLimitAreUnlimited() {
+        QuotaService quotas = service(Map.of(), 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(quotas.tryAcquire(QuotaScope.TENANT, "t")).isTrue();
+        }
+        assertThat(quotas.bucketCount(QuotaScope.TENANT)).isZero();
+    }
+
+    @Test
+    void theDefaultLimitAppliesToEachKeySeparately() {
+        QuotaService quotas = service(Map.of(QuotaProperties.DEFAULT_KEY, ONE_PER_SECOND), 10);
+
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "a")).isTrue();
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "a")).isFalse();
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "b")).isTrue();
+    }
+
+    @Test
+    void rotatingTenantIdsDoNotGrowTheBucketsPastTheCap() {
+        QuotaService quotas = service(Map.of(QuotaProperties.DEFAULT_KEY, ONE_PER_SECOND), 100);
+
+        for (int i = 0; i < 10_000; i++) {
+            quotas.tryAcquire(QuotaScope.TENANT, "tenant-" + i);
+        }
+
+        assertThat(quotas.bucketCount(QuotaScope.TENANT)).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void rotatingTenantIdsNeitherResetOtherBucketsNorEscapeTheLimit() {
+        QuotaService quotas = service(Map.of(QuotaProperties.DEFAULT_KEY, ONE_PER_SECOND), 100);
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "victim")).isTrue();
+
+        int granted = 0;
+        for (int i = 0; i < 10_000; i++) {
+            granted += quotas.tryAcquire(QuotaScope.TENANT, "tenant-" + i) ? 1 : 0;
+        }
+
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "victim")).isFalse();
+        // one permit per bucket that fits, plus the shared overflow bucket
+        assertThat(granted).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void acquireWaitsForTheNextPermit() {
+        QuotaService quotas = service(Map.of(), 10, Map.of("h", new QuotaProperties.Limit(5, 1)));
+        quotas.acquire(QuotaScope.HOST, "h").join();
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> next = quotas.acquire(QuotaScope.HOST, "h");
+        assertThat(next).isNotDone();
+        next.join();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+    }
+
+    @Test
+    void acquireFailsAtOnceWhenTheWaitExceedsMaxWait() {
+        QuotaService quotas = service(Map.of(), 10, Map.of("h", ONE_PER_SECOND));
+        quotas.acquire(QuotaScope.HOST, "h").join();
+
+        CompletableFuture<Void> next = quotas.acquire(QuotaScope.HOST, "h", Duration.ofMillis(100));
+
+        assertThat(next).isCompletedExceptionally();
+        assertThatThrownBy(next::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(WorkflowFailure.class);
+    }
+
+    @Test
+    void setLimitReplacesOneLimitAndKeepsTheOthers() {
+        QuotaService quotas = service(Map.of(QuotaProperties.DEFAULT_KEY, ONE_PER_SECOND), 10);
+
+        quotas.setLimit(QuotaScope.TENANT, "vip", new QuotaProperties.Limit(1000, 100));
+        quotas.setLimit(QuotaScope.HOST, "h", ONE_PER_SECOND);
+
+        assertThat(quotas.properties().tenants()).containsOnlyKeys(QuotaProperties.DEFAULT_KEY, "vip");
+        assertThat(quotas.properties().hosts()).containsOnlyKeys("h");
+        quotas.setLimit(QuotaScope.TENANT, "vip", null);
+        assertThat(quotas.properties().tenants()).containsOnlyKeys(QuotaProperties.DEFAULT_KEY);
+    }
+
+    @Test
+    void setLimitLeavesOtherBucketsAndTheChangedOnesScheduleAlone() {
+        QuotaService quotas = service(Map.of(QuotaProperties.DEFAULT_KEY, ONE_PER_SECOND), 10);
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "a")).isTrue();
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "b")).isTrue();
+
+        quotas.setLimit(QuotaScope.TENANT, "vip", new QuotaProperties.Limit(1000, 100));
+        quotas.setLimit(QuotaScope.HOST, "h", ONE_PER_SECOND);
+        quotas.setLimit(QuotaScope.TENANT, "b", new QuotaProperties.Limit(1, 5));
+
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "a")).isFalse();
+        // b keeps the permit it spent: 4 of the new burst of 5 are left
+        for (int i = 0; i < 4; i++) {
+            assertThat(quotas.tryAcquire(QuotaScope.TENANT, "b")).isTrue();
+        }
+        assertThat(quotas.tryAcquire(QuotaScope.TENANT, "b")).isFalse();
+    }
+
+    @Test
+    void removedLimitsStopReportingTheirGauge() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        QuotaService quotas = new QuotaService(new QuotaProperties(Map.of(), Map.of(), Map.of(),
+                Duration.ofSeconds(5), null, 10), meters);
+
+        quotas.setLimit(QuotaScope.TENANT, "vip", new QuotaProperties.Limit(1000, 100));
+        assertThat(meters.get("workflow.quota.limit").tag("key", "vip").gauge().value()).isEqualTo(1000);
+
+        quotas.setLimit(QuotaScope.TENANT, "vip", null);
+        assertThat(meters.find("workflow.quota.limit").tag("key", "vip").gauge()).isNull();
+    }
+
+    private static QuotaService service(Map<String, QuotaProperties.Limit> tenants, int maxBuckets) {
+        return service(tenants, maxBuckets, Map.of());
+    }
+
+    private static QuotaService service(Map<String, QuotaProperties.Limit> tenants, int maxBuckets,
+                                        Map<String, QuotaProperties.Limit> hosts) {
+        return new QuotaService(new QuotaProperties(Map.of(), tenants, hosts, Duration.ofSeconds(5), null, maxBuckets),
+                new SimpleMeterRegistry());
+    }
+}
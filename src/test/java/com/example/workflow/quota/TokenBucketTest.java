@@ -0,0 +1,75 @@
+package com.example.workflow.quota;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void grantsTheBurstAtOnceThenRejects() {
+        TokenBucket bucket = new TokenBucket(new QuotaProperties.Limit(1, 3));
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void aBurstBelowOneStillGrantsOnePermit() {
+        TokenBucket bucket = new TokenBucket(new QuotaProperties.Limit(1, 0));
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        // 200 ms apart, so a pause between the first two calls does not refill the bucket
+        TokenBucket bucket = new TokenBucket(new QuotaProperties.Limit(5, 1));
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        Thread.sleep(250);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void reservationsQueueUpOneIntervalApart() {
+        TokenBucket bucket = new TokenBucket(new QuotaProperties.Limit(1, 1));
+
+        assertThat(bucket.reserve(10 * SECOND)).isZero();
+        assertThat((double) bucket.reserve(10 * SECOND)).isCloseTo(SECOND, within(0.05 * SECOND));
+        assertThat((double) bucket.reserve(10 * SECOND)).isCloseTo(2 * SECOND, within(0.05 * SECOND));
+    }
+
+    @Test
+    void rejectsWithoutReservingWhenTheWaitExceedsMaxWait() {
+        TokenBucket bucket = new TokenBucket(new QuotaProperties.Limit(1, 1));
+        bucket.reserve(0);
+
+        assertThat(bucket.reserve(SECOND / 2)).isEqualTo(-1);
+        assertThat(bucket.reserve(SECOND / 2)).isEqualTo(-1);
+        // the rejected calls left the schedule untouched
+        assertThat((double) bucket.reserve(10 * SECOND)).isCloseTo(SECOND, within(0.05 * SECOND));
+    }
+
+    @Test
+    void isFullOnlyOnceEveryPermitIsBack() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(new QuotaProperties.Limit(5, 2));
+        assertThat(bucket.isFull(System.nanoTime())).isTrue();
+
+        bucket.tryAcquire();
+        assertThat(bucket.isFull(System.nanoTime())).isFalse();
+
+        Thread.sleep(250);
+        assertThat(bucket.isFull(System.nanoTime())).isTrue();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.workflow.reactive;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "workflow.warmup.enabled=false"})
+class ReactiveWorkflowEndToEndTest {
+
+    private static final byte[] VALID = "{\"valid\":true}".getBytes(StandardCharsets.UTF_8);
+    private static final AtomicInteger downstreamStatus = new AtomicInteger(200);
+    private static final AtomicInteger downstreamCalls = new AtomicInteger();
+    private static final DisposableServer downstream = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .handle((req, res) -> req.receive().then(Mono.defer(() -> {
+                downstreamCalls.incrementAndGet();
+                return res.status(downstreamStatus.get())
+                        .header("Content-Type", "application/json")
+                        .sendByteArray(Mono.just(VALID))
+                        .then();
+            })))
+            .bindNow();
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("workflow.validate-url", () -> "http://127.0.0.1:" + downstream.port() + "/validate");
+        registry.add("workflow.history.dir", () -> dir.resolve("history").toString());
+        registry.add("workflow.idempotency.file", () -> dir.resolve("idempotency.log").toString());
+        registry.add("workflow.memory.spill-dir", () -> dir.resolve("spill").toString());
+    }
+
+    @AfterAll
+    static void stopDownstream() {
+        downstream.disposeNow();
+    }
+
+    @Autowired
+    WebTestClient client;
+    @Autowired
+    ReactiveWorkflowExecutor executor;
+
+    @BeforeEach
+    void resetDownstream() {
+        downstreamStatus.set(200);
+        downstreamCalls.set(0);
+    }
+
+    @Test
+    void aMatchingEmailCallsDownstreamAndResponds200() {
+        execute("{\"query\":{\"email\":\"hmchiud@tsmc.com\"}}")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.httpStatus").isEqualTo("OK")
+                .jsonPath("$.body.email").isEqualTo("hmchiud@tsmc.com");
+        assertThat(downstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void anyOtherEmailTakesTheFailureBranchWithoutCallingDownstream() {
+        execute("{\"query\":{\"email\":\"someone@example.com\"}}")
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.httpStatus").isEqualTo("BAD_REQUEST")
+                .jsonPath("$.body.error").isEqualTo("Bad request – invalid email");
+        assertThat(downstreamCalls).hasValue(0);
+    }
+
+    @Test
+    void aFailingDownstreamIsAnUpstreamProblem() {
+        downstreamStatus.set(500);
+
+        execute("{\"query\":{\"email\":\"hmchiud@tsmc.com\"}}")
+                .expectStatus().isEqualTo(502)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("UPSTREAM_FAILED")
+                .jsonPath("$.status").isEqualTo(502);
+    }
+
+    @Test
+    void aMissingQueryIsAValidationProblem() {
+        execute("{}")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("VALIDATION_FAILED")
+                .jsonPath("$.detail").isEqualTo("query object is required");
+    }
+
+    @Test
+    void anUnreadableBodyIsAValidationProblem() {
+        execute("{not json")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("VALIDATION_FAILED")
+                .jsonPath("$.detail").isEqualTo("Request body is not valid JSON");
+    }
+
+    @Test
+    void syntheticRunsRefuseNonBlockingThreads() {
+        String url = "http://127.0.0.1:" + downstream.port() + "/validate";
+        Map<String, Object> body = Map.of("query", Map.of("email", "hmchiud@tsmc.com"));
+
+        executor.runSynthetic(body, url);
+        assertThatThrownBy(() -> Mono.fromRunnable(() -> executor.runSynthetic(body, url))
+                .subscribeOn(Schedulers.parallel())
+                .block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Synthetic runs block");
+        assertThat(downstreamCalls).hasValue(1);
+    }
+
+    private WebTestClient.ResponseSpec execute(String body) {
+        return client.post().uri("/workflows/execute")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.workflow.tracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanProcessorTest {
+
+    private final Recorder exported = new Recorder();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private SdkTracerProvider provider;
+
+    @AfterEach
+    void close() {
+        provider.close();
+    }
+
+    @Test
+    void keepsEveryChildEndingConcurrentlyInAFailedTrace() throws Exception {
+        Tracer tracer = tracer(new TailSamplingProperties(true, Duration.ofMinutes(1), 0, 10, Duration.ofMinutes(1)));
+        Span root = tracer.spanBuilder("root").startSpan();
+        Context parent = Context.current().with(root);
+        int children = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < children; i++) {
+                pool.execute(() -> {
+                    Span child = tracer.spanBuilder("child").setParent(parent).startSpan();
+                    await(start);
+                    child.end();
+                });
+            }
+            start.countDown();
+        }
+        root.setStatus(StatusCode.ERROR).end();
+
+        assertThat(exported.spans).hasSize(children + 1);
+    }
+
+    @Test
+    void dropsFastTraceAndChildrenEndingAfterTheRoot() {
+        Tracer tracer = tracer(new TailSamplingProperties(true, Duration.ofMinutes(1), 0, 10, Duration.ofMinutes(1)));
+        Span root = tracer.spanBuilder("root").startSpan();
+        Span late = tracer.spanBuilder("late").setParent(Context.current().with(root)).startSpan();
+        root.end();
+        late.end();
+
+        assertThat(exported.spans).isEmpty();
+    }
+
+    @Test
+    void childEndingAfterAKeptRootFollowsIt() {
+        Tracer tracer = tracer(new TailSamplingProperties(true, Duration.ofMinutes(1), 1, 10, Duration.ofMinutes(1)));
+        Span root = tracer.spanBuilder("root").startSpan();
+        Span late = tracer.spanBuilder("late").setParent(Context.current().with(root)).startSpan();
+        root.end();
+        late.end();
+
+        assertThat(exported.spans).extracting(ReadableSpan::getName).containsExactly("root", "late");
+    }
+
+    @Test
+    void exportsChildrenWhoseRootIsOverdue() throws Exception {
+        Tracer tracer = tracer(new TailSamplingProperties(true, Duration.ofMinutes(1), 0, 10, Duration.ofMillis(1)));
+        Span root = tracer.spanBuilder("root").startSpan();
+        tracer.spanBuilder("orphan").setParent(Context.current().with(root)).startSpan().end();
+        Thread.sleep(1100);
+        // any ending span triggers the sweep
+        tracer.spanBuilder("other").setParent(Context.current().with(root)).startSpan().end();
+
+        assertThat(exported.spans).extracting(ReadableSpan::getName).containsExactly("orphan", "other");
+        assertThat(meters.counter("workflow.tracing.tail.unsampled", "reason", "expired").count()).isEqualTo(1);
+    }
+
+    @Test
+    void passesSpansThroughWhenTooManyTracesArePending() {
+        Tracer tracer = tracer(new TailSamplingProperties(true, Duration.ofMinutes(1), 0, 1, Duration.ofMinutes(1)));
+        Span first = tracer.spanBuilder("first").startSpan();
+        Span second = tracer.spanBuilder("second").startSpan();
+        tracer.spanBuilder("a").setParent(Context.current().with(first)).startSpan().end();
+        tracer.spanBuilder("b").setParent(Context.current().with(second)).startSpan().end();
+
+        assertThat(exported.spans).extracting(ReadableSpan::getName).containsExactly("b");
+        assertThat(meters.counter("workflow.tracing.tail.unsampled", "reason", "overflow").count()).isEqualTo(1);
+    }
+
+    private Tracer tracer(TailSamplingProperties properties) {
+        provider = SdkTracerProvider.builder()
+                .addSpanProcessor(new TailSamplingSpanProcessor(exported, properties, meters))
+                .build();
+        return provider.get("test");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Recorder implements SpanProcessor {
+
+        final List<ReadableSpan> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            spans.add(span);
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.workflow.warmup;
+
+import com.example.workflow.WarmableWorkflow;
+import com.example.workflow.history.ExecutionHistory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "workflow.warmup.iterations=20")
+class WorkflowWarmupTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void files(DynamicPropertyRegistry registry) {
+        registry.add("workflow.history.dir", () -> dir.resolve("history").toString());
+        registry.add("workflow.idempotency.file", () -> dir.resolve("idempotency.log").toString());
+        registry.add("workflow.memory.spill-dir", () -> dir.resolve("spill").toString());
+    }
+
+    @Autowired
+    ReadinessProbe probe;
+    @Autowired
+    ApplicationAvailability availability;
+    @Autowired
+    ExecutionHistory history;
+    @Autowired
+    MeterRegistry meters;
+
+    @Test
+    void readinessStaysDownUntilWarmUpHasFinished() {
+        assertThat(probe.seen).hasSize(20).containsOnly(ReadinessState.REFUSING_TRAFFIC);
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void syntheticRunsRecordNoHistoryOrMetrics() {
+        assertThat(history.query(null, null, null, null, null, 10).items()).isEmpty();
+        assertThat(meters.get("workflow.history.records").tag("outcome", "written").counter().count()).isZero();
+        assertThat(meters.find("workflow.run").meters()).isEmpty();
+        assertThat(meters.find("workflow.node").meters()).isEmpty();
+        assertThat(meters.find("http.client.requests").meters()).isEmpty();
+        assertThat(meters.find("workflow.concurrency.limit").meters()).isEmpty();
+        assertThat(meters.get("workflow.quota.buckets").tag("scope", "host").gauge().value()).isZero();
+    }
+
+    @TestConfiguration
+    static class Probe {
+
+        @Bean
+        ReadinessProbe readinessProbe(ObjectProvider<ApplicationAvailability> availability) {
+            return new ReadinessProbe(availability);
+        }
+    }
+
+    /** A workflow that notes the readiness state every time warm-up runs it. */
+    static class ReadinessProbe implements WarmableWorkflow {
+
+        final List<ReadinessState> seen = new CopyOnWriteArrayList<>();
+        private final ObjectProvider<ApplicationAvailability> availability;
+
+        ReadinessProbe(ObjectProvider<ApplicationAvailability> availability) {
+            this.availability = availability;
+        }
+
+        @Override
+        public String workflowId() {
+            return "readiness-probe";
+        }
+
+        @Override
+        public List<Map<String, Object>> samplePayloads() {
+            return List.of(Map.of());
+        }
+
+        @Override
+        public void runSynthetic(Map<String, Object> body, String downstreamUrl) {
+            seen.add(availability.getObject().getReadinessState());
+        }
+    }
+}